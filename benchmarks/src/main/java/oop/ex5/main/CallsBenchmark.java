@@ -0,0 +1,68 @@
+package oop.ex5.main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures MethodCallsChecker.CheckCalls over the calls of a synthetic program (a single
+ * call in every method).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class CallsBenchmark {
+
+    /**
+     * The number of methods (and calls) in the program.
+     */
+    @Param({"1000", "20000"})
+    public int methods;
+
+    /**
+     * The verification context of the scanned program, which holds its calls.
+     */
+    private VerificationContext context;
+
+    /**
+     * Scans the program, so all its methods and calls are known.
+     *
+     * @throws IOException   If the program could not be written or read.
+     * @throws ScopeError    If the program has a Scope error.
+     * @throws MethodError   If the program has a Method error.
+     * @throws VariableError If the program has a Variable error.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ScopeError, MethodError, VariableError {
+        SjavaFileReader reader = new SjavaFileReader(SjavaGenerator.writeTemporary("--methods", Integer.toString(this.methods)).toString());
+        reader.readFile();
+        this.context = new VerificationContext();
+        new Scope(this.context, SjavaParser.parse(reader.getFileContent()), SjavaTree.ROOT, null,
+                "Global Scope").scan();
+    }
+
+    /**
+     * Checks all the calls.
+     *
+     * @throws MethodError   If a call is invalid.
+     * @throws VariableError If a call's arguments are invalid.
+     */
+    @Benchmark
+    public void checkCalls() throws MethodError, VariableError {
+        this.context.methodCalls.CheckCalls();
+    }
+}
@@ -0,0 +1,84 @@
+package oop.ex5.main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the condition checking of a single (empty) if block inside a method, for
+ * conditions of reserved words, variables, constants and their combinations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+public class ConditionBenchmark {
+
+    /**
+     * The measured condition (over the method's arguments a, b and c).
+     */
+    @Param({"true", "a", "-2.5", "a || b && c", "a && true || 5 || b && -3.25 || c"})
+    public String condition;
+
+    /**
+     * The tree of the method.
+     */
+    private SjavaTree tree;
+
+    /**
+     * The method which holds the if block.
+     */
+    private Method method;
+
+    /**
+     * The if block node.
+     */
+    private int conditionNode;
+
+    /**
+     * Parses and verifies the method once, so the if block can be checked again and again.
+     *
+     * @throws ScopeError    If the method has a Scope error.
+     * @throws MethodError   If the method has a Method error.
+     * @throws VariableError If the method has a Variable error.
+     */
+    @Setup
+    public void setUp() throws ScopeError, MethodError, VariableError {
+        this.tree = SjavaParser.parse(new StringLineBuffer(List.of(
+                "void f(int a, double b, boolean c) {",
+                "if (" + this.condition + ") {",
+                "}",
+                "return;",
+                "}")));
+        Scope global = new Scope(new VerificationContext(), this.tree, SjavaTree.ROOT, null, "Global Scope");
+        int methodNode = this.tree.firstChild(SjavaTree.ROOT);
+        this.method = new Method(this.tree, methodNode, global, this.tree.name(methodNode));
+        this.conditionNode = this.tree.firstChild(methodNode);
+    }
+
+    /**
+     * Checks the if block.
+     *
+     * @return The if block scope.
+     * @throws ScopeError    If the condition is invalid.
+     * @throws MethodError   If there is Method error.
+     * @throws VariableError If the condition is invalid.
+     */
+    @Benchmark
+    public Scondition check() throws ScopeError, MethodError, VariableError {
+        return new Scondition(this.tree, this.conditionNode, this.method,
+                this.tree.line(this.tree.firstLine(this.conditionNode)));
+    }
+}
@@ -0,0 +1,85 @@
+package oop.ex5.main;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The input files of the file level benchmarks: either the hand written test files
+ * (in the directory given by the 'sjava.tests' system property, 'tests' by default),
+ * or a single large synthetic program.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class Corpus {
+
+    /**
+     * The corpus names.
+     */
+    final static String TESTS = "tests", SYNTHETIC = "synthetic";
+
+    /**
+     * The system property of the test files directory.
+     */
+    private final static String TESTS_PROPERTY = "sjava.tests";
+
+    /**
+     * The corpus to be used.
+     */
+    @Param({TESTS, SYNTHETIC})
+    public String corpus;
+
+    /**
+     * The number of methods in the synthetic program.
+     */
+    @Param({"20000"})
+    public int methods;
+
+    /**
+     * The paths of the corpus files.
+     */
+    List<String> files;
+
+    /**
+     * The lines of every corpus file (read once).
+     */
+    List<LineBuffer> lines;
+
+    /**
+     * The tree of every corpus file (parsed once).
+     */
+    List<SjavaTree> trees;
+
+    /**
+     * Finds (or writes) the corpus files, and reads and parses them.
+     *
+     * @throws IOException If the files could not be read.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (this.corpus.equals(SYNTHETIC)) this.files = List.of(SjavaGenerator.writeTemporary("--methods", Integer.toString(this.methods)).toString());
+        else {
+            try (Stream<Path> paths = Files.list(Paths.get(System.getProperty(TESTS_PROPERTY, TESTS)))) {
+                this.files = paths.map(Path::toString).filter(path -> path.endsWith(".sjava")).sorted()
+                        .collect(Collectors.toList());
+            }
+        }
+        this.lines = new ArrayList<>();
+        this.trees = new ArrayList<>();
+        for (String file : this.files) {
+            SjavaFileReader reader = new SjavaFileReader(file);
+            reader.readFile();
+            this.lines.add(reader.getFileContent());
+            this.trees.add(SjavaParser.parse(reader.getFileContent()));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package oop.ex5.main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the reading of the corpus files (SjavaFileReader.readFile), and the parsing of
+ * the read lines into trees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadBenchmark {
+
+    /**
+     * Reads all the corpus files.
+     *
+     * @param corpus The corpus.
+     * @param hole   The sink of the read lines.
+     * @throws IOException If a file could not be read.
+     */
+    @Benchmark
+    public void readFile(Corpus corpus, Blackhole hole) throws IOException {
+        for (String file : corpus.files) {
+            SjavaFileReader reader = new SjavaFileReader(file);
+            reader.readFile();
+            hole.consume(reader.getFileContent());
+        }
+    }
+
+    /**
+     * Parses all the (already read) corpus files.
+     *
+     * @param corpus The corpus.
+     * @param hole   The sink of the trees.
+     */
+    @Benchmark
+    public void parse(Corpus corpus, Blackhole hole) {
+        for (LineBuffer lines : corpus.lines) hole.consume(SjavaParser.parse(lines));
+    }
+}
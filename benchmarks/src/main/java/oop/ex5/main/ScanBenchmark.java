@@ -0,0 +1,48 @@
+package oop.ex5.main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Scope.scan of the global scope (and so of every inner scope) over the
+ * (already parsed) corpus files, without the final checks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScanBenchmark {
+
+    /**
+     * The name of the global scope.
+     */
+    private final static String GLOBAL_SCOPE_NAME = "Global Scope";
+
+    /**
+     * Scans all the corpus files, each with a new verification context.
+     *
+     * @param corpus The corpus.
+     * @param hole   The sink of the scanned scopes and errors.
+     */
+    @Benchmark
+    public void scan(Corpus corpus, Blackhole hole) {
+        for (SjavaTree tree : corpus.trees) {
+            Scope scope = new Scope(new VerificationContext(), tree, SjavaTree.ROOT, null, GLOBAL_SCOPE_NAME);
+            try {
+                scope.scan();
+            } catch (ScopeError | MethodError | VariableError e) {
+                hole.consume(e);
+            }
+            hole.consume(scope);
+        }
+    }
+}
@@ -0,0 +1,814 @@
+package oop.ex5.main;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates synthetic s-Java programs for benchmarks and scaling tests.
+ * A program is made of global variables (some of them declared only after the methods,
+ * so the methods refer to them before their declaration), followed by methods which
+ * declare and assign variables of all the types, nest if/while blocks and call each other.
+ * Every program is legal, unless a single deliberate error is asked for (with '--invalid'),
+ * in which case the error's kind and line are printed to the error stream. The same seed
+ * and options always give the same program.
+ * Usage: java oop.ex5.main.SjavaGenerator [options], with the options:
+ * '--seed n' - the random seed (1).
+ * '--methods n' - the number of methods (100).
+ * '--size n[K|M|G]' - the size of the program, instead of a number of methods.
+ * '--globals n' - the number of global variables (20).
+ * '--forward-globals r' - the part of the global variables which are declared after the methods (0.25).
+ * '--depth n' - the nesting depth of the if/while blocks in every method (3).
+ * '--condition-terms n' - the maximal number of terms in a condition (3).
+ * '--fan-out n' - the number of method calls in every method (2).
+ * '--line-length n' - the length which a declaration line grows to, with more variables (40).
+ * '--types list' - the weights of the variable types, e.g. 'int:4,double:1,String:1,char:1,boolean:2'.
+ * '--final r' - the part of the variables which are final (0.2).
+ * '--invalid' - adds a single deliberate error, in a random method.
+ * '--out path' - the output file (the standard output by default).
+ */
+public class SjavaGenerator {
+
+    /**
+     * The options which take a value.
+     */
+    private final static String SEED = "--seed", METHODS = "--methods", SIZE = "--size", GLOBALS = "--globals",
+            FORWARD_GLOBALS = "--forward-globals", DEPTH = "--depth", CONDITION_TERMS = "--condition-terms",
+            FAN_OUT = "--fan-out", LINE_LENGTH = "--line-length", TYPES = "--types", FINAL = "--final",
+            OUT = "--out";
+
+    /**
+     * The option which adds a deliberate error.
+     */
+    private final static String INVALID = "--invalid";
+
+    /**
+     * How far ahead of itself a method may call (the called methods are written later).
+     */
+    private final static int FORWARD_CALLS_WINDOW = 10;
+
+    /**
+     * The limits of the number of statements in a single scope, and of method arguments.
+     */
+    private final static int MIN_STATEMENTS = 2, MAX_STATEMENTS = 6, MAX_ARGUMENTS = 3;
+
+    /**
+     * The exit code of invalid options.
+     */
+    private final static int ERROR_CODE = 2;
+
+    /**
+     * The size of the output buffer.
+     */
+    private final static int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The indentation of a single nesting level.
+     */
+    private final static String INDENT = "    ";
+
+    /**
+     * The s-Java variable types.
+     */
+    enum Type {
+        INT("int"), DOUBLE("double"), STRING("String"), CHAR("char"), BOOLEAN("boolean");
+
+        /**
+         * The type keyword.
+         */
+        private final String keyword;
+
+        /**
+         * The enum constructor.
+         *
+         * @param keyword The type keyword.
+         */
+        Type(String keyword) {
+            this.keyword = keyword;
+        }
+
+        /**
+         * Checks if a variable of this type may be given a value of another type.
+         *
+         * @param other The type of the value.
+         * @return True if the value may be assigned, false otherwise.
+         */
+        boolean accepts(Type other) {
+            return this == other || (this == DOUBLE && other == INT) ||
+                    (this == BOOLEAN && (other == INT || other == DOUBLE));
+        }
+
+        /**
+         * Checks if a variable of this type may be a condition.
+         *
+         * @return True for boolean, int and double variables.
+         */
+        boolean isConditionType() {
+            return this == INT || this == DOUBLE || this == BOOLEAN;
+        }
+
+        /**
+         * Creates a random literal of this type.
+         *
+         * @param random The random generator.
+         * @return The literal.
+         */
+        String literal(Random random) {
+            switch (this) {
+                case INT:
+                    return Integer.toString(random.nextInt(2001) - 1000);
+                case DOUBLE:
+                    return (random.nextInt(2001) - 1000) + "." + random.nextInt(100);
+                case STRING:
+                    return "\"text" + random.nextInt(1000) + "\"";
+                case CHAR:
+                    return "'" + (char) ('a' + random.nextInt(26)) + "'";
+                default:
+                    return random.nextBoolean() ? Scondition.TRUE_VALUE : Scondition.FALSE_VALUE;
+            }
+        }
+    }
+
+    /**
+     * The kinds of the deliberate errors.
+     */
+    enum ErrorKind {
+        MISSING_SEMICOLON, TYPE_MISMATCH, FINAL_ASSIGNMENT, UNDECLARED_VARIABLE, MISSING_RETURN,
+        UNKNOWN_METHOD, BAD_ARGUMENTS_NUMBER, BAD_VARIABLE_NAME, UNCLOSED_BLOCK, MISSING_CONDITION,
+        NESTED_METHOD
+    }
+
+    /**
+     * A generated variable.
+     */
+    private static class Var {
+
+        /**
+         * The variable name.
+         */
+        final String name;
+
+        /**
+         * The variable type.
+         */
+        final Type type;
+
+        /**
+         * True if the variable is final.
+         */
+        final boolean isFinal;
+
+        /**
+         * The class's constructor.
+         *
+         * @param name    The variable name.
+         * @param type    The variable type.
+         * @param isFinal True if the variable is final.
+         */
+        Var(String name, Type type, boolean isFinal) {
+            this.name = name;
+            this.type = type;
+            this.isFinal = isFinal;
+        }
+    }
+
+    /**
+     * The random seed.
+     */
+    private long seed = 1;
+
+    /**
+     * The number of methods, and the number of global variables.
+     */
+    private int methods = 100, globals = 20;
+
+    /**
+     * The size of the program in bytes, or 0 if the number of methods is used.
+     */
+    private long size = 0;
+
+    /**
+     * The part of the global variables which are declared after the methods, and the part
+     * of the variables which are final.
+     */
+    private double forwardGlobals = 0.25, finalRatio = 0.2;
+
+    /**
+     * The nesting depth, the number of condition terms, the number of calls in a method and
+     * the declaration line length.
+     */
+    private int depth = 3, conditionTerms = 3, fanOut = 2, lineLength = 40;
+
+    /**
+     * The weight of every type (by its ordinal number).
+     */
+    private int[] typeWeights = {4, 2, 1, 1, 2};
+
+    /**
+     * True if a deliberate error is to be added.
+     */
+    private boolean invalid = false;
+
+    /**
+     * The output file, or null for the standard output.
+     */
+    private String out = null;
+
+    /**
+     * The random generator of the program.
+     */
+    private Random random;
+
+    /**
+     * The program's writer.
+     */
+    private Writer writer;
+
+    /**
+     * The number of characters (which are all ASCII bytes) and lines written so far.
+     */
+    private long written = 0, lines = 0;
+
+    /**
+     * The global variables which are declared before the methods, and all the global variables.
+     */
+    private final List<Var> earlyGlobals = new ArrayList<>(), allGlobals = new ArrayList<>();
+
+    /**
+     * The global variables which are declared after the methods.
+     */
+    private final Set<Var> lateGlobals = new HashSet<>();
+
+    /**
+     * The highest method number which was called so far.
+     */
+    private int maxCalled = -1;
+
+    /**
+     * The method which holds the deliberate error (or -1), and the error's kind.
+     */
+    private int invalidMethod = -1;
+
+    /**
+     * The kind of the deliberate error.
+     */
+    private ErrorKind errorKind;
+
+    /**
+     * The counter of the local variable names.
+     */
+    private int localsCounter = 0;
+
+    /**
+     * The generator's constructor.
+     *
+     * @param args The generator's options.
+     * @throws IllegalArgumentException In case of an invalid option.
+     */
+    public SjavaGenerator(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(INVALID)) {
+                this.invalid = true;
+                continue;
+            }
+            if (i + 1 == args.length) throw new IllegalArgumentException("Missing value of '" + args[i] + "'.");
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case SEED:
+                    this.seed = Long.parseLong(value);
+                    break;
+                case METHODS:
+                    this.methods = positive(args[i - 1], Integer.parseInt(value));
+                    break;
+                case SIZE:
+                    this.size = parseSize(value);
+                    break;
+                case GLOBALS:
+                    this.globals = positive(args[i - 1], Integer.parseInt(value));
+                    break;
+                case FORWARD_GLOBALS:
+                    this.forwardGlobals = ratio(args[i - 1], Double.parseDouble(value));
+                    break;
+                case DEPTH:
+                    this.depth = Integer.parseInt(value);
+                    break;
+                case CONDITION_TERMS:
+                    this.conditionTerms = positive(args[i - 1], Integer.parseInt(value));
+                    break;
+                case FAN_OUT:
+                    this.fanOut = Integer.parseInt(value);
+                    break;
+                case LINE_LENGTH:
+                    this.lineLength = Integer.parseInt(value);
+                    break;
+                case TYPES:
+                    this.typeWeights = parseTypes(value);
+                    break;
+                case FINAL:
+                    this.finalRatio = ratio(args[i - 1], Double.parseDouble(value));
+                    break;
+                case OUT:
+                    this.out = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option '" + args[i - 1] + "'.");
+            }
+        }
+    }
+
+    /**
+     * The main method of the generator.
+     *
+     * @param args The generator's options.
+     * @throws IOException If the program could not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        SjavaGenerator generator;
+        try {
+            generator = new SjavaGenerator(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(ERROR_CODE);
+            return;
+        }
+        generator.generate();
+    }
+
+    /**
+     * Writes a program to a new temporary file.
+     *
+     * @param options The generator's options (other than '--out').
+     * @return The path of the file (which is deleted when the JVM exits).
+     * @throws IOException If the file could not be written.
+     */
+    static Path writeTemporary(String... options) throws IOException {
+        Path file = Files.createTempFile("synthetic", ".sjava");
+        file.toFile().deleteOnExit();
+        String[] args = Arrays.copyOf(options, options.length + 2);
+        args[options.length] = OUT;
+        args[options.length + 1] = file.toString();
+        new SjavaGenerator(args).generate();
+        return file;
+    }
+
+    /**
+     * Writes the program.
+     *
+     * @throws IOException If the program could not be written.
+     */
+    public void generate() throws IOException {
+        this.random = new Random(this.seed);
+        this.written = 0;
+        this.lines = 0;
+        if (this.invalid) {
+            this.invalidMethod = this.random.nextInt(this.methods);
+            this.errorKind = ErrorKind.values()[this.random.nextInt(ErrorKind.values().length)];
+        }
+        Writer target = this.out == null ? new OutputStreamWriter(System.out, StandardCharsets.US_ASCII) :
+                Files.newBufferedWriter(Paths.get(this.out), StandardCharsets.US_ASCII);
+        try (Writer writer = new BufferedWriter(target, BUFFER_SIZE)) {
+            this.writer = writer;
+            createGlobals();
+            line(0, "// a synthetic s-Java program (seed " + this.seed + ")");
+            for (Var global : this.earlyGlobals) line(0, declaration(global, global.type.literal(this.random)));
+            int method = 0;
+            // in size mode, the methods go on until every called method was written
+            while (this.size > 0 ? this.written < this.size || method <= this.maxCalled :
+                    method < this.methods) {
+                writeMethod(method++);
+            }
+            for (Var global : this.allGlobals) {
+                if (this.lateGlobals.contains(global)) line(0, declaration(global, global.type.literal(this.random)));
+            }
+        }
+    }
+
+    /**
+     * Creates the global variables (they are all initialized when declared).
+     */
+    private void createGlobals() {
+        this.earlyGlobals.clear();
+        this.allGlobals.clear();
+        this.lateGlobals.clear();
+        for (int i = 0; i < this.globals; i++) {
+            Var global = new Var("g" + i, randomType(), chance(this.finalRatio));
+            this.allGlobals.add(global);
+            if (chance(this.forwardGlobals)) this.lateGlobals.add(global);
+            else this.earlyGlobals.add(global);
+        }
+    }
+
+    /**
+     * Writes a single method.
+     *
+     * @param index The method number.
+     * @throws IOException If the method could not be written.
+     */
+    private void writeMethod(int index) throws IOException {
+        List<Var> arguments = signature(index);
+        StringBuilder declaration = new StringBuilder("void m").append(index).append(" (");
+        for (int i = 0; i < arguments.size(); i++) {
+            Var argument = arguments.get(i);
+            if (i > 0) declaration.append(", ");
+            declaration.append(argument.isFinal ? "final " : "").append(argument.type.keyword).append(' ')
+                    .append(argument.name);
+        }
+        line(0, declaration.append(") {").toString());
+        // the method level variables may be used anywhere (and as call arguments), so they are
+        // kept apart from the variables of the blocks
+        List<Var> methodVariables = new ArrayList<>(arguments);
+        methodVariables.addAll(this.allGlobals);
+        boolean isInvalid = index == this.invalidMethod;
+        if (isInvalid) writeError(index);
+        int calls = this.fanOut;
+        writeBody(index, 1, methodVariables, new ArrayList<>(), calls);
+        if (!(isInvalid && this.errorKind == ErrorKind.MISSING_RETURN)) line(1, "return;");
+        else line(1, "int last_" + index + " = 0;");
+        line(0, "}");
+    }
+
+    /**
+     * Writes the statements of a scope, and its nested block.
+     *
+     * @param method          The method number.
+     * @param level           The nesting level of the scope (1 for the method's body).
+     * @param methodVariables The method's arguments, method level variables and the global variables.
+     * @param blockVariables  The variables of the enclosing blocks.
+     * @param calls           The number of calls left to be written in this scope and its nested blocks.
+     * @throws IOException If the statements could not be written.
+     */
+    private void writeBody(int method, int level, List<Var> methodVariables, List<Var> blockVariables,
+                           int calls) throws IOException {
+        List<Var> scopeVariables = level == 1 ? methodVariables : blockVariables;
+        int statements = MIN_STATEMENTS + this.random.nextInt(MAX_STATEMENTS - MIN_STATEMENTS + 1);
+        boolean hasBlock = level <= this.depth;
+        // the calls of this scope (the rest are left to the nested block)
+        int scopeCalls = hasBlock ? calls / 2 + calls % 2 : calls;
+        for (int i = 0; i < statements + scopeCalls; i++) {
+            if (i >= statements) {
+                writeCall(method, level, methodVariables);
+                continue;
+            }
+            switch (this.random.nextInt(5)) {
+                case 0:
+                case 1:
+                    writeDeclaration(method, level, methodVariables, blockVariables, scopeVariables);
+                    break;
+                case 2:
+                    writeAssignment(level, methodVariables, blockVariables);
+                    break;
+                case 3:
+                    line(0, "// line " + this.lines);
+                    break;
+                default:
+                    line(level, randomType().keyword + " unset_" + method + "_" + this.localsCounter++ + ";");
+            }
+        }
+        if (!hasBlock) return;
+        String keyword = this.random.nextBoolean() ? "if" : "while";
+        line(level, keyword + " (" + condition(methodVariables, blockVariables) + ") {");
+        List<Var> innerVariables = new ArrayList<>(blockVariables);
+        writeBody(method, level + 1, methodVariables, innerVariables, calls - scopeCalls);
+        line(level, "}");
+    }
+
+    /**
+     * Writes a declaration line of one or more variables of the same type, until the line is
+     * as long as the line length option.
+     *
+     * @param method          The method number.
+     * @param level           The nesting level.
+     * @param methodVariables The method level (and global) variables.
+     * @param blockVariables  The variables of the enclosing blocks.
+     * @param scopeVariables  The variables of the current scope, which the new variables join.
+     * @throws IOException If the line could not be written.
+     */
+    private void writeDeclaration(int method, int level, List<Var> methodVariables, List<Var> blockVariables,
+                                  List<Var> scopeVariables) throws IOException {
+        Type type = randomType();
+        boolean isFinal = chance(this.finalRatio);
+        StringBuilder line = new StringBuilder(isFinal ? "final " : "").append(type.keyword).append(' ');
+        List<Var> declared = new ArrayList<>();
+        do {
+            Var variable = new Var("v" + method + "_" + this.localsCounter++, type, isFinal);
+            if (!declared.isEmpty()) line.append(", ");
+            line.append(variable.name).append(" = ").append(value(type, methodVariables, blockVariables));
+            declared.add(variable);
+        } while (line.length() < this.lineLength);
+        line(level, line.append(';').toString());
+        scopeVariables.addAll(declared);
+    }
+
+    /**
+     * Writes an assignment to a non-final variable (if there is one).
+     *
+     * @param level           The nesting level.
+     * @param methodVariables The method level (and global) variables.
+     * @param blockVariables  The variables of the enclosing blocks.
+     * @throws IOException If the line could not be written.
+     */
+    private void writeAssignment(int level, List<Var> methodVariables, List<Var> blockVariables)
+            throws IOException {
+        List<Var> candidates = new ArrayList<>();
+        for (Var variable : methodVariables) if (!variable.isFinal) candidates.add(variable);
+        for (Var variable : blockVariables) if (!variable.isFinal) candidates.add(variable);
+        if (candidates.isEmpty()) return;
+        Var variable = candidates.get(this.random.nextInt(candidates.size()));
+        String value;
+        // an assignment to a global variable which is declared after the methods is checked after
+        // the methods, in the global scope, so only a literal may be assigned to it; and such a global
+        // variable is never an assigned value, as only declarations which use it are checked later
+        if (this.lateGlobals.contains(variable)) value = variable.type.literal(this.random);
+        else {
+            List<Var> earlyVariables = new ArrayList<>(methodVariables);
+            earlyVariables.removeAll(this.lateGlobals);
+            value = value(variable.type, earlyVariables, blockVariables);
+        }
+        line(level, variable.name + " = " + value + ";");
+    }
+
+    /**
+     * Writes a call of a random method (which may be written later).
+     *
+     * @param method          The calling method number.
+     * @param level           The nesting level.
+     * @param methodVariables The method level (and global) variables, which may be passed to the call.
+     * @throws IOException If the line could not be written.
+     */
+    private void writeCall(int method, int level, List<Var> methodVariables) throws IOException {
+        int bound = method + 1 + FORWARD_CALLS_WINDOW;
+        if (this.size == 0) bound = Math.min(bound, this.methods);
+        int called = this.random.nextInt(bound);
+        this.maxCalled = Math.max(this.maxCalled, called);
+        StringBuilder call = new StringBuilder("m").append(called).append('(');
+        List<Var> parameters = signature(called);
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) call.append(", ");
+            // the calls are checked after all the methods, so only method level variables may be passed
+            call.append(value(parameters.get(i).type, methodVariables, List.of()));
+        }
+        line(level, call.append(");").toString());
+    }
+
+    /**
+     * Writes the deliberate error of the invalid method (at the start of its body).
+     *
+     * @param method The method number.
+     * @throws IOException If the error could not be written.
+     */
+    private void writeError(int method) throws IOException {
+        System.err.println("Injected " + this.errorKind + " in method m" + method + " (line " +
+                (this.lines + 1) + ").");
+        String name = "bad_" + method;
+        switch (this.errorKind) {
+            case MISSING_SEMICOLON:
+                line(1, "int " + name + " = 5");
+                break;
+            case TYPE_MISMATCH:
+                line(1, "int " + name + " = \"text\";");
+                break;
+            case FINAL_ASSIGNMENT:
+                line(1, "final int " + name + " = 1;");
+                line(1, name + " = 2;");
+                break;
+            case UNDECLARED_VARIABLE:
+                line(1, "undeclared_" + method + " = 5;");
+                break;
+            case UNKNOWN_METHOD:
+                line(1, "no_such_method_" + method + "();");
+                break;
+            case BAD_ARGUMENTS_NUMBER:
+                StringBuilder call = new StringBuilder("m").append(method).append('(');
+                for (Var parameter : signature(method)) call.append(parameter.type.literal(this.random)).append(", ");
+                line(1, call.append("0);").toString());
+                break;
+            case BAD_VARIABLE_NAME:
+                line(1, "int 2" + name + " = 5;");
+                break;
+            case UNCLOSED_BLOCK:
+                line(1, "if (true) {");
+                break;
+            case MISSING_CONDITION:
+                line(1, "if () {");
+                line(1, "}");
+                break;
+            case NESTED_METHOD:
+                line(1, "void inner_" + method + "() {");
+                line(2, "return;");
+                line(1, "}");
+                break;
+            default:
+                // the missing return is written at the end of the method
+        }
+    }
+
+    /**
+     * Creates a condition of random terms (reserved words, constants and variables).
+     *
+     * @param methodVariables The method level (and global) variables.
+     * @param blockVariables  The variables of the enclosing blocks.
+     * @return The condition.
+     */
+    private String condition(List<Var> methodVariables, List<Var> blockVariables) {
+        List<String> candidates = new ArrayList<>();
+        for (Var variable : methodVariables) if (variable.type.isConditionType()) candidates.add(variable.name);
+        for (Var variable : blockVariables) if (variable.type.isConditionType()) candidates.add(variable.name);
+        int terms = 1 + this.random.nextInt(this.conditionTerms);
+        StringBuilder condition = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) condition.append(this.random.nextBoolean() ? " || " : " && ");
+            int kind = this.random.nextInt(4);
+            if (kind == 0 || candidates.isEmpty()) condition.append(Type.BOOLEAN.literal(this.random));
+            else if (kind == 1) condition.append(Type.DOUBLE.literal(this.random));
+            else condition.append(candidates.get(this.random.nextInt(candidates.size())));
+        }
+        return condition.toString();
+    }
+
+    /**
+     * Creates a value for a variable of a given type: a literal, or an existing variable
+     * of an accepted type.
+     *
+     * @param type            The type of the variable.
+     * @param methodVariables The method level (and global) variables.
+     * @param blockVariables  The variables of the enclosing blocks.
+     * @return The value.
+     */
+    private String value(Type type, List<Var> methodVariables, List<Var> blockVariables) {
+        if (this.random.nextBoolean()) return type.literal(this.random);
+        List<Var> candidates = new ArrayList<>();
+        for (Var variable : methodVariables) if (type.accepts(variable.type)) candidates.add(variable);
+        for (Var variable : blockVariables) if (type.accepts(variable.type)) candidates.add(variable);
+        if (candidates.isEmpty()) return type.literal(this.random);
+        return candidates.get(this.random.nextInt(candidates.size())).name;
+    }
+
+    /**
+     * Creates the arguments of a method. The arguments depend only on the seed and the method
+     * number, so a call may be written before the method itself.
+     *
+     * @param method The method number.
+     * @return The method's arguments.
+     */
+    private List<Var> signature(int method) {
+        Random signatureRandom = new Random(this.seed * 31 + method);
+        List<Var> arguments = new ArrayList<>();
+        int argumentsNumber = signatureRandom.nextInt(MAX_ARGUMENTS + 1);
+        for (int i = 0; i < argumentsNumber; i++) {
+            arguments.add(new Var("p" + method + "_" + i, weightedType(signatureRandom),
+                    signatureRandom.nextDouble() < this.finalRatio));
+        }
+        return arguments;
+    }
+
+    /**
+     * Creates the declaration line of an initialized variable.
+     *
+     * @param variable The variable.
+     * @param value    The variable's value.
+     * @return The declaration line.
+     */
+    private static String declaration(Var variable, String value) {
+        return (variable.isFinal ? "final " : "") + variable.type.keyword + " " + variable.name + " = " + value + ";";
+    }
+
+    /**
+     * Writes a single line.
+     *
+     * @param level The nesting level (the indentation) of the line.
+     * @param text  The line's text.
+     * @throws IOException If the line could not be written.
+     */
+    private void line(int level, String text) throws IOException {
+        for (int i = 0; i < level; i++) {
+            this.writer.write(INDENT);
+            this.written += INDENT.length();
+        }
+        this.writer.write(text);
+        this.writer.write('\n');
+        this.written += text.length() + 1;
+        this.lines++;
+    }
+
+    /**
+     * Picks a random type, by the type weights.
+     *
+     * @return The type.
+     */
+    private Type randomType() {
+        return weightedType(this.random);
+    }
+
+    /**
+     * Picks a random type, by the type weights.
+     *
+     * @param random The random generator.
+     * @return The type.
+     */
+    private Type weightedType(Random random) {
+        int total = 0;
+        for (int weight : this.typeWeights) total += weight;
+        int pick = random.nextInt(total);
+        for (Type type : Type.values()) {
+            pick -= this.typeWeights[type.ordinal()];
+            if (pick < 0) return type;
+        }
+        return Type.INT;
+    }
+
+    /**
+     * Draws a random event.
+     *
+     * @param probability The probability of the event.
+     * @return True if the event happened.
+     */
+    private boolean chance(double probability) {
+        return this.random.nextDouble() < probability;
+    }
+
+    /**
+     * Parses the type weights option.
+     *
+     * @param value The option's value (e.g. 'int:4,String:1'; a type without a weight has the weight 1,
+     *              and a type which is not listed has the weight 0).
+     * @return The weight of every type.
+     * @throws IllegalArgumentException If a type is unknown, or all the weights are 0.
+     */
+    private static int[] parseTypes(String value) {
+        int[] weights = new int[Type.values().length];
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            Type type = null;
+            for (Type candidate : Type.values()) if (candidate.keyword.equals(parts[0])) type = candidate;
+            if (type == null) throw new IllegalArgumentException("Unknown type '" + parts[0] + "'.");
+            weights[type.ordinal()] = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+        }
+        int total = 0;
+        for (int weight : weights) total += Math.max(weight, 0);
+        if (total == 0) throw new IllegalArgumentException("No type has a positive weight.");
+        return weights;
+    }
+
+    /**
+     * Parses a size option.
+     *
+     * @param value The option's value (a number of bytes, optionally followed by K, M or G).
+     * @return The size in bytes.
+     */
+    private static long parseSize(String value) {
+        char unit = Character.toUpperCase(value.charAt(value.length() - 1));
+        long multiplier = unit == 'K' ? 1L << 10 : unit == 'M' ? 1L << 20 : unit == 'G' ? 1L << 30 : 1;
+        String number = multiplier == 1 ? value : value.substring(0, value.length() - 1);
+        return positive(SIZE, Long.parseLong(number)) * multiplier;
+    }
+
+    /**
+     * Checks that an option's value is positive.
+     *
+     * @param option The option.
+     * @param value  The option's value.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is not positive.
+     */
+    private static long positive(String option, long value) {
+        if (value <= 0) throw new IllegalArgumentException("The value of '" + option + "' must be positive.");
+        return value;
+    }
+
+    /**
+     * Checks that an option's value is positive.
+     *
+     * @param option The option.
+     * @param value  The option's value.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is not positive.
+     */
+    private static int positive(String option, int value) {
+        return (int) positive(option, (long) value);
+    }
+
+    /**
+     * Checks that an option's value is a ratio (between 0 and 1).
+     *
+     * @param option The option.
+     * @param value  The option's value.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is not a ratio.
+     */
+    private static double ratio(String option, double value) {
+        if (value < 0 || value > 1) throw new IllegalArgumentException("The value of '" + option +
+                "' must be between 0 and 1.");
+        return value;
+    }
+}
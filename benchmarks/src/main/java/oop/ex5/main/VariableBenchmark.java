@@ -0,0 +1,64 @@
+package oop.ex5.main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of a single Variable from its declaration, for every variable
+ * type (and for a declaration which copies an existing variable).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+public class VariableBenchmark {
+
+    /**
+     * The declaration of the measured variable.
+     */
+    @Param({"int a = 5", "final double d = -3.5", "String s = \"text\"", "char c = 'x'", "boolean b = 1.5",
+            "int copy = existing", "int uninitialized"})
+    public String declaration;
+
+    /**
+     * The global scope the variables are declared in.
+     */
+    private Scope scope;
+
+    /**
+     * Creates the global scope, with an existing variable to be copied.
+     *
+     * @throws VariableError If the existing variable could not be declared.
+     */
+    @Setup
+    public void setUp() throws VariableError {
+        SjavaTree tree = SjavaParser.parse(new StringLineBuffer(List.of()));
+        this.scope = new Scope(new VerificationContext(), tree, SjavaTree.ROOT, null, "Global Scope");
+        Variable existing = new Variable("int existing = 7", false, this.scope);
+        this.scope.variables.put(existing.getName(), existing);
+    }
+
+    /**
+     * Constructs the variable.
+     *
+     * @return The variable.
+     * @throws VariableError If the declaration is invalid.
+     */
+    @Benchmark
+    public Variable construct() throws VariableError {
+        return new Variable(this.declaration, false, this.scope);
+    }
+}
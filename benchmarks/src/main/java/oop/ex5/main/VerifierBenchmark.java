@@ -0,0 +1,35 @@
+package oop.ex5.main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the end-to-end verification of the corpus files (reading, parsing, scanning
+ * and the final checks), as done by a single run of the program.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VerifierBenchmark {
+
+    /**
+     * Verifies all the corpus files.
+     *
+     * @param corpus The corpus.
+     * @param hole   The sink of the results.
+     */
+    @Benchmark
+    public void verify(Corpus corpus, Blackhole hole) {
+        for (String file : corpus.files) hole.consume(Verifier.verifyFile(file));
+    }
+}
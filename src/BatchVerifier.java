@@ -0,0 +1,257 @@
+package oop.ex5.main;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Verifies many s-Java files in a single run of the program, on a pool of worker threads.
+ * The inputs may be files, directories (all the '.sjava' files in them, recursively) and
+ * glob patterns (e.g. 'tests/*.sjava'). One result line is printed for each file, in
+ * the order of the inputs (and in path order within a directory or a glob pattern):
+ * the file path, the output code (0/1/2) and the error message, separated by tabs.
+ */
+public class BatchVerifier {
+
+    /**
+     * The option which sets the number of worker threads.
+     */
+    public final static String JOBS_OPTION = "--jobs";
+
+    /**
+     * The prefix of every option.
+     */
+    private final static String OPTION_PREFIX = "--";
+
+    /**
+     * The extension of s-Java files (used when expanding directories).
+     */
+    private final static String SJAVA_EXTENSION = ".sjava";
+
+    /**
+     * The glob syntax prefix, and the characters which turn an argument into a glob pattern.
+     */
+    private final static String GLOB_SYNTAX = "glob:", GLOB_CHARACTERS = "*?[{";
+
+    /**
+     * The separator of the result line fields.
+     */
+    private final static String FIELD_SEPARATOR = "\t";
+
+    /**
+     * The files to be verified, in the output order.
+     */
+    private final List<String> files = new ArrayList<>();
+
+    /**
+     * The result of each entry in the files list which is known in advance (an input which
+     * could not be expanded into files), or null if the file is to be verified.
+     */
+    private final List<VerificationResult> presetResults = new ArrayList<>();
+
+    /**
+     * The number of worker threads.
+     */
+    private int jobs = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The verifier of the files (shared by all the workers).
+     */
+    private final Verifier verifier;
+
+    /**
+     * The class's constructor.
+     *
+     * @param args The command line arguments (options and inputs).
+     * @throws IllegalArgumentException In case of an invalid option, or no inputs at all.
+     */
+    public BatchVerifier(String[] args) {
+        this(args, new Verifier());
+    }
+
+    /**
+     * The class's constructor.
+     *
+     * @param args     The command line arguments (options and inputs).
+     * @param verifier The verifier of the files (with its method cache and result store, if any).
+     * @throws IllegalArgumentException In case of an invalid option, or no inputs at all.
+     */
+    public BatchVerifier(String[] args, Verifier verifier) {
+        this.verifier = verifier;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(JOBS_OPTION)) {
+                if (++i == args.length) throw new IllegalArgumentException("Missing number of jobs.");
+                this.jobs = parseJobs(args[i]);
+            } else if (args[i].startsWith(OPTION_PREFIX)) {
+                throw new IllegalArgumentException("Unknown option '" + args[i] + "'.");
+            } else addInput(args[i]);
+        }
+        if (this.files.isEmpty())
+            throw new IllegalArgumentException("Missing s-Java file name.");
+    }
+
+    /**
+     * Checks if a single argument requires the batch mode (an option, a directory or a glob pattern).
+     *
+     * @param arg The argument.
+     * @return True if the argument is not a single file path, false otherwise.
+     */
+    public static boolean isBatchArgument(String arg) {
+        return arg.startsWith(OPTION_PREFIX) || isGlob(arg) || Files.isDirectory(Paths.get(arg));
+    }
+
+    /**
+     * Verifies all the files on the worker pool, and prints their results in order.
+     *
+     * @param out The stream to print the results to.
+     */
+    public void run(PrintStream out) {
+        ExecutorService pool = Executors.newFixedThreadPool(this.jobs);
+        try {
+            List<Future<VerificationResult>> futures = new ArrayList<>(this.files.size());
+            for (int i = 0; i < this.files.size(); i++) {
+                String file = this.files.get(i);
+                futures.add(this.presetResults.get(i) == null ? pool.submit(() -> this.verifier.verifyFilePath(file)) : null);
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                VerificationResult result = this.presetResults.get(i);
+                printResult(out, result != null ? result : getResult(this.files.get(i), futures.get(i)));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for the result of a single file.
+     *
+     * @param file   The file path.
+     * @param future The future result of the file's verification.
+     * @return The result of the verification.
+     */
+    private static VerificationResult getResult(String file, Future<VerificationResult> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return new VerificationResult(file, Sjavac.OutputType.IO_ERROR,
+                    new IOException("Failed to verify the file: " + e.getCause(), e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new VerificationResult(file, Sjavac.OutputType.IO_ERROR,
+                    new IOException("Interrupted while verifying the file.", e));
+        }
+    }
+
+    /**
+     * Prints a single result line.
+     *
+     * @param out    The stream to print to.
+     * @param result The result to be printed.
+     */
+    private static void printResult(PrintStream out, VerificationResult result) {
+        out.println(result.getSource() + FIELD_SEPARATOR + result.getCode() + FIELD_SEPARATOR +
+                result.getMessage());
+    }
+
+    /**
+     * Expands a single input into the files it stands for.
+     *
+     * @param input A file path, a directory path or a glob pattern.
+     */
+    private void addInput(String input) {
+        List<String> inputFiles;
+        try {
+            if (isGlob(input)) inputFiles = expandGlob(input);
+            else if (Files.isDirectory(Paths.get(input))) inputFiles = expandDirectory(Paths.get(input));
+            else inputFiles = List.of(input);
+        } catch (IOException | RuntimeException e) {
+            this.files.add(input);
+            this.presetResults.add(new VerificationResult(input, Sjavac.OutputType.IO_ERROR, e));
+            return;
+        }
+        for (String file : inputFiles) {
+            this.files.add(file);
+            this.presetResults.add(null);
+        }
+    }
+
+    /**
+     * Finds all the s-Java files in a directory (recursively), in path order.
+     *
+     * @param directory The directory.
+     * @return The paths of the files.
+     * @throws IOException If the directory could not be read.
+     */
+    private static List<String> expandDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(path -> Files.isRegularFile(path) &&
+                            path.getFileName().toString().endsWith(SJAVA_EXTENSION))
+                    .sorted().map(Path::toString).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Finds all the files which match a glob pattern, in path order.
+     * The search starts from the longest directory prefix of the pattern without glob characters.
+     *
+     * @param glob The glob pattern.
+     * @return The paths of the files.
+     * @throws IOException If the base directory could not be read.
+     */
+    private static List<String> expandGlob(String glob) throws IOException {
+        int firstGlobChar = glob.length();
+        for (char c : GLOB_CHARACTERS.toCharArray()) {
+            int index = glob.indexOf(c);
+            if (index != -1) firstGlobChar = Math.min(firstGlobChar, index);
+        }
+        int baseEnd = glob.lastIndexOf('/', firstGlobChar);
+        Path base = Paths.get(baseEnd == -1 ? "." : glob.substring(0, baseEnd + 1));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher(GLOB_SYNTAX + glob);
+        try (Stream<Path> paths = Files.walk(base)) {
+            return paths.map(path -> baseEnd == -1 ? base.relativize(path) : path)
+                    .filter(path -> matcher.matches(path) && Files.isRegularFile(path))
+                    .sorted().map(Path::toString).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Checks if an argument is a glob pattern.
+     *
+     * @param arg The argument.
+     * @return True if the argument contains a glob character, false otherwise.
+     */
+    private static boolean isGlob(String arg) {
+        for (char c : GLOB_CHARACTERS.toCharArray()) {
+            if (arg.indexOf(c) != -1) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses the number of worker threads.
+     *
+     * @param jobs The '--jobs' option value.
+     * @return The number of worker threads.
+     * @throws IllegalArgumentException If the value is not a positive number.
+     */
+    private static int parseJobs(String jobs) {
+        try {
+            int value = Integer.parseInt(jobs);
+            if (value > 0) return value;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException("Invalid number of jobs '" + jobs + "'.");
+    }
+}
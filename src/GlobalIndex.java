@@ -0,0 +1,144 @@
+package oop.ex5.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * The global variables of a whole file, indexed before the file's methods are verified,
+ * so a method resolves a global variable which is declared after it (a forward reference)
+ * directly, while it is scanned (see SymbolTable).
+ * The index is built from the statements of the global scope alone (the inner nodes of the
+ * tree's root which are single lines), which are declared or assigned in a global scope of
+ * the index's own, so it holds every global variable the run's global scan may declare, in
+ * its state at the end of the global scope (a global variable which is not initialized by
+ * the global scope is not initialized in the index). The method bodies are never scanned.
+ */
+final class GlobalIndex {
+
+    /**
+     * The name of the global scope.
+     */
+    private final static String GLOBAL_SCOPE_NAME = "Global Scope";
+
+    /**
+     * The global scope of the index, which declares the indexed variables.
+     */
+    private final Scope globalScope;
+
+    /**
+     * The indexed global variables, by their names.
+     */
+    private final Map<String, Variable> globals;
+
+    /**
+     * The class's constructor.
+     *
+     * @param tree The intermediate representation of the file (or of its part which is read).
+     */
+    private GlobalIndex(SjavaTree tree) {
+        this.globalScope = new Scope(new VerificationContext(null, null), tree, SjavaTree.ROOT, null,
+                GLOBAL_SCOPE_NAME);
+        this.globals = this.globalScope.variables;
+    }
+
+    /**
+     * Indexes the global variables of a parsed file.
+     *
+     * @param tree The intermediate representation of the file.
+     * @return The index, or null if no global variable is declared after a method.
+     */
+    static GlobalIndex of(SjavaTree tree) {
+        if (!hasForwardDeclarations(tree)) return null;
+        GlobalIndex index = new GlobalIndex(tree);
+        index.add(tree);
+        return index;
+    }
+
+    /**
+     * Indexes the global variables of a file which is read line by line (see
+     * Verifier.verifyStreaming), holding only a single method's lines at a time. The lines
+     * are only parsed, and their brackets are checked as the file is read (see
+     * Scope.checkBrackets).
+     *
+     * @param reader The reader of the file's lines.
+     * @return The index.
+     * @throws IOException          If failed to read one of the lines.
+     * @throws BadBracketsStructure If a scope is never closed, or a closing bracket closes nothing.
+     */
+    static GlobalIndex read(BufferedReader reader) throws IOException, BadBracketsStructure {
+        StreamingLineBuffer lines = new StreamingLineBuffer();
+        SjavaParser parser = new SjavaParser(lines);
+        SjavaTree tree = parser.getTree();
+        GlobalIndex index = new GlobalIndex(tree);
+        String line = reader.readLine();
+        while (line != null) {
+            parser.parseLine(lines.add(line));
+            if (parser.isAtRoot()) {
+                Scope.checkBrackets(tree);
+                index.add(tree);
+                tree.clear();
+                lines.discard();
+            }
+            line = reader.readLine();
+        }
+        Scope.checkBrackets(tree);
+        index.add(tree);
+        return index;
+    }
+
+    /**
+     * Gets an indexed global variable.
+     *
+     * @param name The variable name.
+     * @return The variable, or null if the file declares no global variable of this name.
+     */
+    Variable get(String name) {
+        return this.globals.get(name);
+    }
+
+    /**
+     * Gets the number of the indexed global variables.
+     *
+     * @return The number of variables.
+     */
+    int size() {
+        return this.globals.size();
+    }
+
+    /**
+     * Declares or assigns the global variables of every statement of the global scope.
+     * A statement's errors are reported by the run's own global scan (the global variables
+     * they spoil are not declared by either of them).
+     *
+     * @param tree The intermediate representation of the file (or of its part which was read).
+     */
+    private void add(SjavaTree tree) {
+        for (int child = tree.firstChild(SjavaTree.ROOT); child != SjavaTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) != SjavaTree.NodeKind.STATEMENT) continue;
+            this.globalScope.context.currentLine = tree.firstLine(child);
+            try {
+                this.globalScope.singleLineCommand(tree.line(tree.firstLine(child)));
+            } catch (ScopeError | MethodError | VariableError e) {
+                // the statement is reported by the run, at its line
+            }
+        }
+    }
+
+    /**
+     * Checks if a global variable is declared after a method (otherwise every global
+     * variable is declared before the methods refer to it, and nothing is indexed).
+     *
+     * @param tree The intermediate representation of the file.
+     * @return True if a global statement follows a method, false otherwise.
+     */
+    private static boolean hasForwardDeclarations(SjavaTree tree) {
+        boolean afterMethod = false;
+        for (int child = tree.firstChild(SjavaTree.ROOT); child != SjavaTree.NONE; child = tree.nextSibling(child)) {
+            SjavaTree.NodeKind kind = tree.kind(child);
+            if (kind == SjavaTree.NodeKind.METHOD) afterMethod = true;
+            else if (afterMethod && kind == SjavaTree.NodeKind.STATEMENT) return true;
+        }
+        return false;
+    }
+}
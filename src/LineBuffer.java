@@ -0,0 +1,33 @@
+package oop.ex5.main;
+
+/**
+ * The immutable code lines of a single s-Java source, shared by all of its scopes.
+ * A scope never copies its lines - it is only a (first line, last line) view over the
+ * buffer of its source.
+ */
+public interface LineBuffer {
+
+    /**
+     * Gets the number of lines in the buffer.
+     *
+     * @return The number of lines.
+     */
+    int size();
+
+    /**
+     * Gets a single line.
+     *
+     * @param lineNum The (zero based) line number.
+     * @return The line, without its line terminator.
+     */
+    String line(int lineNum);
+
+    /**
+     * Gets a read-only view of a single line, which may not be copied out of the
+     * buffer until its text is needed (see MappedLineBuffer).
+     *
+     * @param lineNum The (zero based) line number.
+     * @return The line's view, without its line terminator.
+     */
+    CharSequence view(int lineNum);
+}
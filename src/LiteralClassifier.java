@@ -0,0 +1,154 @@
+package oop.ex5.main;
+
+/**
+ * A single-pass classifier of s-Java literals. A token is walked once, and classified
+ * into the set of the variable types it is a valid literal of, so a value or a condition
+ * is checked without creating variables, matching regular expressions or throwing.
+ * The sets are bit masks of the type constants:
+ * int - an optionally negative number of digits (which fits in an int).
+ * double - an optionally negative number of digits, with at most one '.' anywhere.
+ * boolean - 'true', 'false' or any double literal.
+ * String - any characters in double quotes.
+ * char - a single character in single quotes.
+ */
+public final class LiteralClassifier {
+
+    /**
+     * The type bits.
+     */
+    public final static int NONE = 0, INT = 1, DOUBLE = 1 << 1, BOOLEAN = 1 << 2, STRING = 1 << 3, CHAR = 1 << 4;
+
+    /**
+     * The types a valid condition literal may have.
+     */
+    public final static int CONDITION_TYPES = INT | DOUBLE | BOOLEAN;
+
+    /**
+     * The number of characters of a char literal (a character in quotes).
+     */
+    private final static int CHAR_LITERAL_LENGTH = 3;
+
+    /**
+     * Special characters.
+     */
+    private final static char MINUS = '-', DOT = '.', DOUBLE_QUOTE = '"', SINGLE_QUOTE = '\'';
+
+    /**
+     * The unicode line terminators (besides the line feed and the carriage return).
+     */
+    private final static char NEXT_LINE = 0x85, LINE_SEPARATOR = 0x2028, PARAGRAPH_SEPARATOR = 0x2029;
+
+    /**
+     * The class is never instantiated.
+     */
+    private LiteralClassifier() {
+    }
+
+    /**
+     * Classifies a token.
+     *
+     * @param token The token (without surrounding white spaces).
+     * @return The set of the types the token is a valid literal of (NONE if it is not a literal).
+     */
+    public static int classify(CharSequence token) {
+        int length = token.length();
+        if (length == 0) return NONE;
+        char first = token.charAt(0);
+        if (first == DOUBLE_QUOTE) return isStringLiteral(token) ? STRING : NONE;
+        if (first == SINGLE_QUOTE) return isCharLiteral(token) ? CHAR : NONE;
+        if (isKeyword(token, Scondition.TRUE_VALUE) || isKeyword(token, Scondition.FALSE_VALUE)) return BOOLEAN;
+        return classifyNumber(token);
+    }
+
+    /**
+     * Classifies a possible number literal.
+     *
+     * @param token The token.
+     * @return INT, DOUBLE and BOOLEAN for an integer which fits in an int, DOUBLE and
+     * BOOLEAN for any other number, or NONE.
+     */
+    private static int classifyNumber(CharSequence token) {
+        int length = token.length(), index = token.charAt(0) == MINUS ? 1 : 0, digits = 0;
+        boolean hasDot = false;
+        for (int i = index; i < length; i++) {
+            char c = token.charAt(i);
+            if (c >= '0' && c <= '9') digits++;
+            else if (c == DOT && !hasDot) hasDot = true;
+            else return NONE;
+        }
+        if (digits == 0) return NONE;
+        if (hasDot || !fitsInt(token, index)) return DOUBLE | BOOLEAN;
+        return INT | DOUBLE | BOOLEAN;
+    }
+
+    /**
+     * Checks if an integer literal fits in an int.
+     *
+     * @param token  The integer literal.
+     * @param digits The index of its first digit (after the minus sign, if any).
+     * @return True if the literal's value is an int, false otherwise.
+     */
+    private static boolean fitsInt(CharSequence token, int digits) {
+        boolean isNegative = digits > 0;
+        // the limit is accumulated as a negative number, which also holds Integer.MIN_VALUE
+        long value = 0;
+        for (int i = digits; i < token.length(); i++) {
+            value = value * 10 - (token.charAt(i) - '0');
+            if (value < Integer.MIN_VALUE) return false;
+        }
+        return isNegative || value != Integer.MIN_VALUE;
+    }
+
+    /**
+     * Checks if a token is a String literal: double quotes around characters which are
+     * not line terminators.
+     *
+     * @param token The token.
+     * @return True if the token is a String literal, false otherwise.
+     */
+    private static boolean isStringLiteral(CharSequence token) {
+        int length = token.length();
+        if (length < 2 || token.charAt(length - 1) != DOUBLE_QUOTE) return false;
+        for (int i = 1; i < length - 1; i++) if (isLineTerminator(token.charAt(i))) return false;
+        return true;
+    }
+
+    /**
+     * Checks if a token is a char literal: single quotes around a single character (which
+     * may be a surrogate pair) which is not a line terminator.
+     *
+     * @param token The token.
+     * @return True if the token is a char literal, false otherwise.
+     */
+    private static boolean isCharLiteral(CharSequence token) {
+        int length = token.length();
+        if (token.charAt(length - 1) != SINGLE_QUOTE) return false;
+        if (length == CHAR_LITERAL_LENGTH) return !isLineTerminator(token.charAt(1));
+        return length == CHAR_LITERAL_LENGTH + 1 && Character.isHighSurrogate(token.charAt(1)) &&
+                Character.isLowSurrogate(token.charAt(2));
+    }
+
+    /**
+     * Checks if a token is exactly a given keyword.
+     *
+     * @param token   The token.
+     * @param keyword The keyword.
+     * @return True if the token is the keyword, false otherwise.
+     */
+    private static boolean isKeyword(CharSequence token, String keyword) {
+        if (token.length() != keyword.length()) return false;
+        for (int i = 0; i < keyword.length(); i++) if (token.charAt(i) != keyword.charAt(i)) return false;
+        return true;
+    }
+
+    /**
+     * Checks if a character is a line terminator (which the regular expressions' '.'
+     * never matched).
+     *
+     * @param c The character.
+     * @return True for a line feed, a carriage return and the unicode line separators.
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == NEXT_LINE || c == LINE_SEPARATOR || c == PARAGRAPH_SEPARATOR;
+    }
+}
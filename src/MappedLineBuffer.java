@@ -0,0 +1,230 @@
+package oop.ex5.main;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A LineBuffer over a memory-mapped s-Java file.
+ * The file is mapped once, and a single pass over its bytes builds an index of the
+ * offsets of every line, so no line is copied out of the mapping while the file is read.
+ * A line's text is only decoded when a checker actually needs it. If the file is pure
+ * ASCII (as s-Java files usually are), the line views read their characters directly from
+ * the mapping; otherwise the lines are decoded with the platform's default charset (as the
+ * file reader always did).
+ * Lines end with '\n', '\r' or "\r\n", exactly as in BufferedReader.readLine.
+ */
+public class MappedLineBuffer implements LineBuffer {
+
+    /**
+     * The initial capacity of the line offsets index.
+     */
+    private final static int INITIAL_CAPACITY = 256;
+
+    /**
+     * The highest ASCII byte value.
+     */
+    private final static int ASCII_MAX = 0x7F;
+
+    /**
+     * The line terminator bytes.
+     */
+    private final static byte LINE_FEED = '\n', CARRIAGE_RETURN = '\r';
+
+    /**
+     * The mapped file.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The offset of the first byte of every line, and the offset just after its last byte
+     * (before its line terminator).
+     */
+    private int[] starts, ends;
+
+    /**
+     * The number of lines.
+     */
+    private int size;
+
+    /**
+     * True if every byte of the file is an ASCII character, false otherwise.
+     */
+    private boolean isAscii = true;
+
+    /**
+     * The class's constructor. Maps the file and builds its line offsets index.
+     * The file is not kept open - the mapping stays valid after its channel is closed.
+     *
+     * @param filePath The file path.
+     * @throws IOException If the file could not be opened or mapped (or is too large to be mapped).
+     */
+    public MappedLineBuffer(String filePath) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "r");
+             FileChannel channel = file.getChannel()) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE)
+                throw new IOException("The file " + filePath + " is too large to be mapped.");
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        }
+        indexLines();
+    }
+
+    /**
+     * Finds the offsets of all the lines in a single pass over the file's bytes.
+     */
+    private void indexLines() {
+        this.starts = new int[INITIAL_CAPACITY];
+        this.ends = new int[INITIAL_CAPACITY];
+        int limit = this.buffer.limit(), lineStart = 0, offset = 0;
+        while (offset < limit) {
+            byte b = this.buffer.get(offset);
+            if (b == LINE_FEED || b == CARRIAGE_RETURN) {
+                addLine(lineStart, offset);
+                offset++;
+                if (b == CARRIAGE_RETURN && offset < limit && this.buffer.get(offset) == LINE_FEED) offset++;
+                lineStart = offset;
+            } else {
+                // a negative byte is not an ASCII character
+                if (b < 0) this.isAscii = false;
+                offset++;
+            }
+        }
+        // the last line may have no line terminator
+        if (lineStart < limit) addLine(lineStart, limit);
+    }
+
+    /**
+     * Adds a line to the index.
+     *
+     * @param start The offset of the line's first byte.
+     * @param end   The offset just after the line's last byte.
+     */
+    private void addLine(int start, int end) {
+        if (this.size == this.starts.length) {
+            this.starts = Arrays.copyOf(this.starts, this.size * 2);
+            this.ends = Arrays.copyOf(this.ends, this.size * 2);
+        }
+        this.starts[this.size] = start;
+        this.ends[this.size++] = end;
+    }
+
+    /**
+     * Gets the number of lines in the buffer.
+     *
+     * @return The number of lines.
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets a single line, decoding it out of the mapping.
+     *
+     * @param lineNum The (zero based) line number.
+     * @return The line.
+     */
+    @Override
+    public String line(int lineNum) {
+        return decode(this.starts[lineNum], this.ends[lineNum]);
+    }
+
+    /**
+     * Gets a read-only view of a single line. The view of a line of an ASCII file reads
+     * its characters straight from the mapping.
+     *
+     * @param lineNum The (zero based) line number.
+     * @return The line's view.
+     */
+    @Override
+    public CharSequence view(int lineNum) {
+        if (!this.isAscii) return line(lineNum);
+        return new AsciiView(this.starts[lineNum], this.ends[lineNum]);
+    }
+
+    /**
+     * Decodes a range of the mapping into a String.
+     *
+     * @param start The offset of the first byte.
+     * @param end   The offset just after the last byte.
+     * @return The decoded String.
+     */
+    private String decode(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        this.buffer.get(start, bytes);
+        return new String(bytes, this.isAscii ? StandardCharsets.US_ASCII : Charset.defaultCharset());
+    }
+
+    /**
+     * A view of a range of an ASCII file's mapping, in which every byte is a single character.
+     */
+    private class AsciiView implements CharSequence {
+
+        /**
+         * The offset of the view's first byte, and the offset just after its last byte.
+         */
+        private final int start, end;
+
+        /**
+         * The class's constructor.
+         *
+         * @param start The offset of the view's first byte.
+         * @param end   The offset just after the view's last byte.
+         */
+        AsciiView(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Gets the number of characters in the view.
+         *
+         * @return The view's length.
+         */
+        @Override
+        public int length() {
+            return this.end - this.start;
+        }
+
+        /**
+         * Gets a single character of the view.
+         *
+         * @param index The character's index in the view.
+         * @return The character.
+         */
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) throw new IndexOutOfBoundsException(index);
+            return (char) (buffer.get(this.start + index) & ASCII_MAX);
+        }
+
+        /**
+         * Gets a view of a part of this view.
+         *
+         * @param start The index of the first character.
+         * @param end   The index just after the last character.
+         * @return The new view.
+         */
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length() || start > end)
+                throw new IndexOutOfBoundsException("[" + start + ", " + end + ")");
+            return new AsciiView(this.start + start, this.start + end);
+        }
+
+        /**
+         * Decodes the view into a String.
+         *
+         * @return The view's text.
+         */
+        @Override
+        public String toString() {
+            return decode(this.start, this.end);
+        }
+    }
+}
@@ -1,31 +1,17 @@
 package oop.ex5.main;
 
-import java.util.HashMap;
-import java.util.List;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This class represents a single method scope.
  */
 public class Method extends Scope {
 
-    /**
-     * Long regex expressions.
-     */
-    public final static String REGEX_METHOD =  "^\\s*void(\\s*)(\\w+)\\s*(\\(.*\\))\\s*",
-    REGEX_RETURN = "\\s*return\\s*;\\s*";
-
     /**
      * Short regex expressions.
      */
     public final static String NAME = "name", ARGUMENTS = "arguments";
 
-    /**
-     * A HashMap holding all the existing Methods.
-     */
-    public static HashMap<String, Method> allMethods = new HashMap<>();
-
     /**
      * A String which holds the first line of the method (the method's declaration line).
      */
@@ -34,27 +20,65 @@ public class Method extends Scope {
     /**
      * The Method Class constructor.
      *
-     * @param scopeData  the scope's code lines.
+     * @param tree       The intermediate representation of the file.
+     * @param node       The node of the method in the tree.
      * @param outerScope a scope instance from which this constructor was called.
      * @param name The Method's name.
      * @throws ScopeError    If there is Scope error.
      * @throws MethodError   If there is Method error.
      * @throws VariableError If there is Variable error.
      */
-    public Method(List<String> scopeData, Scope outerScope, String name)
+    public Method(SjavaTree tree, int node, Scope outerScope, String name)
+            throws ScopeError, MethodError, VariableError {
+        this(outerScope.context, tree, node, outerScope, name);
+        declare(this.context);
+    }
+
+    /**
+     * Constructs a Method in a given context, and verifies its declaration line and body,
+     * without declaring it (see declare).
+     *
+     * @param context    The context the method is verified in (a context of its own, if the
+     *                   method is verified apart from the rest of its file).
+     * @param tree       The intermediate representation of the file.
+     * @param node       The node of the method in the tree.
+     * @param outerScope a scope instance from which this constructor was called.
+     * @param name       The Method's name.
+     * @throws ScopeError    If there is Scope error.
+     * @throws MethodError   If there is Method error.
+     * @throws VariableError If there is Variable error.
+     */
+    Method(VerificationContext context, SjavaTree tree, int node, Scope outerScope, String name)
             throws ScopeError, MethodError, VariableError {
-        super(scopeData, outerScope, name);
-        this.declaration = this.rawData.get(0);
-        // in order to avoid an infinite loop while scanning the scope's
-        // data, we have to remove it's first line (the declaration of the scope)
-        this.rawData.remove(0);
+        super(context, tree, node, outerScope, name);
+        this.declaration = tree.line(this.firstLine);
         checkNameValidity();
-        processArguments();
-        if (!this.rawData.isEmpty()) scan();
-        if (allMethods.containsKey(this.name)) {
+        this.context.symbols.enterMethod(this);
+        try {
+            processArguments();
+            // an unchanged method replays its cached outcome instead of being scanned
+            if (this.context.methodCache == null) scan();
+            else this.context.methodCache.verify(this);
+        } finally {
+            releaseSymbols();
+            this.context.symbols.exitMethod();
+        }
+    }
+
+    /**
+     * Declares the verified Method in its run: adds it to the run's methods, and checks
+     * that it ends with a return statement.
+     *
+     * @param run The context of the run.
+     * @throws BadMethodNameAlreadyExists If there is another method of this name.
+     * @throws MissingReturnStatement     If there is a missing return statement.
+     */
+    void declare(VerificationContext run) throws BadMethodNameAlreadyExists, MissingReturnStatement {
+        if (run.allMethods.containsKey(this.name)) {
             throw new BadMethodNameAlreadyExists(this.name);
         }
-        allMethods.put(name, this);
+        run.allMethods.put(this.name, this);
+        run.methodCalls.addSignature(this);
         checkReturnAtEnd();
     }
 
@@ -67,8 +91,7 @@ public class Method extends Scope {
      * @return A String which holds the method's name or the method's arguments.
      */
     private String getInfo(String kind) {
-        Pattern pattern = Pattern.compile(REGEX_METHOD);
-        Matcher matcher = pattern.matcher(this.declaration.substring(ZERO,
+        Matcher matcher = SjavaPattern.METHOD_DECLARATION.matcher(this.declaration.substring(ZERO,
                 this.declaration.length() - ONE).trim());
         if (matcher.find()){
             switch (kind) {
@@ -97,6 +120,7 @@ public class Method extends Scope {
             else if (argument.isEmpty()) return;
             Variable variable = new Variable(argument.trim(), true, this);
             this.arguments.put(variable.getName(), variable);
+            if (this.context.stats != null) this.context.stats.countVariable();
         }
     }
 
@@ -107,28 +131,26 @@ public class Method extends Scope {
      */
     private void checkNameValidity() throws MethodError {
         String name = getInfo(NAME);
-        if (Pattern.compile(Variable.REGEX_DIGIT).matcher(name).find()) {
+        if (SjavaPattern.NAME_DIGIT.find(name)) {
             throw new BadMethodNameDigit(this.name);
-        } else if (Pattern.compile(Variable.REGEX_STARTS_UNDERSCORE).matcher(name).find()) {
+        } else if (SjavaPattern.NAME_STARTS_UNDERSCORE.find(name)) {
             throw new BadMethodNameUnderscore(this.name);
-        } else if (Pattern.compile(Variable.REGEX_DIGIT_WORDS).matcher(name).find()) {
+        } else if (SjavaPattern.NAME_ILLEGAL.find(name)) {
             throw new BadMethodNameIllegal(this.name);
-        } else if (Pattern.compile(Variable.SAVED_WORDS)
-                .matcher(name).find()) {
+        } else if (SjavaPattern.NAME_SAVED_WORD.find(name)) {
             throw new BadMethodNameSavedKeyword(name);
         }
     }
 
     /**
-     * Checks if there is return statement and the end of the method.
+     * Checks if there is return statement and the end of the method (the line
+     * before the closing bracket).
      *
      * @throws MissingReturnStatement If there is a missing return statement.
      */
     private void checkReturnAtEnd() throws MissingReturnStatement {
-        String lastLine = this.rawData.get(rawData.size() - ONE);
-        Pattern pattern = Pattern.compile(REGEX_RETURN);
-        Matcher matcher = pattern.matcher(lastLine);
-        if (!matcher.find()) {
+        int lastCodeLine = this.lastLine - ONE;
+        if (lastCodeLine == this.firstLine || !SjavaPattern.METHOD_RETURN.find(this.tree.line(lastCodeLine))) {
             throw new MissingReturnStatement(this);
         }
     }
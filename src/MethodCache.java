@@ -0,0 +1,475 @@
+package oop.ex5.main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent cache of verified method bodies, which lets an unchanged method skip
+ * its scan.
+ * Each legal method is keyed by a hash of its declaration line, its body lines and the
+ * state of every symbol its body refers to (as seen when the method is reached). The
+ * cache entry records everything the method's scan left behind: the deferred method calls
+ * (in their original order), the variables the deferred calls pass, and the global
+ * variables it initialized (the symbols the method declares are not visible
+ * after it, see SymbolTable). When an unchanged method is reached
+ * again, the entry is replayed instead of scanning the body, so the final checks (and the
+ * methods after it) see exactly what they would have seen after a real scan.
+ * A single cache may be used by several verifications at the same time.
+ */
+public class MethodCache {
+
+    /**
+     * The option which sets the method cache file.
+     */
+    public final static String CACHE_OPTION = "--cache";
+
+    /**
+     * The magic number of a cache file, and the version of its format. A file of another
+     * format, or of other verification rules (see VerificationContext.RULES_VERSION), is not
+     * loaded, so its entries are never replayed.
+     */
+    private final static int MAGIC = 0x536A4D43, VERSION = 4;
+
+    /**
+     * The hash algorithm of the keys.
+     */
+    private final static String HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * The digits of the keys (the hexadecimal form of the hashes).
+     */
+    private final static char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * The separators of the hashed fields.
+     */
+    private final static byte FIELD_SEPARATOR = 0, LINE_SEPARATOR = '\n';
+
+    /**
+     * The initialized scope categories of a symbol: not initialized, initialized in the
+     * global scope, or initialized in a method's scope.
+     */
+    private final static byte SCOPE_NONE = 'N', SCOPE_GLOBAL = 'G', SCOPE_METHOD = 'M';
+
+    /**
+     * The kinds of the variables a call's arguments refer to: none, a global variable, an
+     * argument of the method, or a local variable of the method (whose state is recorded).
+     */
+    private final static byte BINDING_NONE = 'N', BINDING_GLOBAL = 'G', BINDING_ARGUMENT = 'A',
+            BINDING_LOCAL = 'L';
+
+    /**
+     * The entries, by their key.
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The file the cache is loaded from and saved to.
+     */
+    private final Path file;
+
+    /**
+     * The class's constructor. Creates an empty cache (use load to read a saved one).
+     *
+     * @param file The file the cache is saved to.
+     */
+    public MethodCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads a saved cache. A missing file, or a file of another format version or other
+     * verification rules, gives an empty cache.
+     *
+     * @param file The cache file.
+     * @return The cache.
+     * @throws IOException If the file could not be read.
+     */
+    public static MethodCache load(Path file) throws IOException {
+        MethodCache cache = new MethodCache(file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != VerificationContext.RULES_VERSION)
+                return cache;
+            int entriesNum = in.readInt();
+            for (int i = 0; i < entriesNum; i++) cache.entries.put(in.readUTF(), Entry.read(in));
+        } catch (NoSuchFileException e) {
+            return cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Saves the cache to its file. The file is replaced at once, so a concurrent reader
+     * never sees a partially written cache.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    public void save() throws IOException {
+        Path temporary = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(VerificationContext.RULES_VERSION);
+            // a snapshot, so entries added while saving do not break the count
+            List<Map.Entry<String, Entry>> snapshot = new ArrayList<>(this.entries.entrySet());
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, Entry> entry : snapshot) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().write(out);
+            }
+        }
+        Files.move(temporary, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Verifies the body of a method whose arguments were already processed: replays its
+     * entry if the method is unchanged, or scans it (and records a new entry) otherwise.
+     *
+     * @param method The method.
+     * @throws ScopeError    If there is Scope error.
+     * @throws MethodError   If there is Method error.
+     * @throws VariableError If there is Variable error.
+     */
+    void verify(Method method) throws ScopeError, MethodError, VariableError {
+        String key = key(method);
+        Entry entry = this.entries.get(key);
+        if (entry != null) {
+            entry.replay(method);
+            return;
+        }
+        entry = new Entry();
+        VerificationContext context = method.context;
+        context.recording = entry;
+        int errors = context.errorCount();
+        try {
+            method.scan();
+        } finally {
+            context.recording = null;
+        }
+        // a method whose errors were collected (and skipped) is not a verified method
+        if (context.errorCount() > errors) return;
+        entry.finish(method);
+        this.entries.put(key, entry);
+    }
+
+    /**
+     * Computes the key of a method: the hash of its lines, and of the state of every name
+     * in its body.
+     *
+     * @param method The method.
+     * @return The key.
+     */
+    private static String key(Method method) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+        TreeSet<String> names = new TreeSet<>();
+        SjavaLexer lexer = method.lexer;
+        for (int lineNum = method.firstLine; lineNum <= method.lastLine; lineNum++) {
+            String line = method.tree.line(lineNum);
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+            digest.update(LINE_SEPARATOR);
+            lexer.tokenize(line);
+            for (int i = 0; i < lexer.count(); i++) {
+                if (lexer.kind(i) == SjavaLexer.TokenKind.IDENTIFIER) names.add(lexer.text(i));
+            }
+        }
+        VerificationContext context = method.context;
+        for (String name : names) {
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            digest.update(FIELD_SEPARATOR);
+            updateSymbol(digest, context.symbols.resolve(name), context);
+            updateSymbol(digest, context.globalVariable(name), context);
+        }
+        byte[] hash = digest.digest();
+        char[] key = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            key[2 * i] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+            key[2 * i + 1] = HEX_DIGITS[hash[i] & 0xF];
+        }
+        return new String(key);
+    }
+
+    /**
+     * Adds the state of a single symbol to a key's hash.
+     *
+     * @param digest   The key's hash.
+     * @param variable The symbol (or null if there is no such symbol).
+     * @param context  The verification run of the key's method.
+     */
+    private static void updateSymbol(MessageDigest digest, Variable variable, VerificationContext context) {
+        if (variable == null) {
+            digest.update(FIELD_SEPARATOR);
+            return;
+        }
+        digest.update(variable.getType().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) (variable.isFinal() ? 'F' : '-'));
+        digest.update((byte) (variable.isArgument() ? 'A' : '-'));
+        digest.update((byte) (variable.isInitialized() ? 'I' : '-'));
+        digest.update(scopeCategory(variable.initializedScope, context));
+        digest.update((byte) (variable.declaredScope == context.globalScope ? 'G' : '-'));
+        digest.update(FIELD_SEPARATOR);
+    }
+
+    /**
+     * Gets the category of a symbol's initialized scope.
+     *
+     * @param scope   The initialized scope (or null if the symbol was not initialized).
+     * @param context The verification run of the symbol.
+     * @return The scope category.
+     */
+    private static byte scopeCategory(Scope scope, VerificationContext context) {
+        if (scope == null) return SCOPE_NONE;
+        return scope == context.globalScope ? SCOPE_GLOBAL : SCOPE_METHOD;
+    }
+
+    /**
+     * The recorded outcome of a single method's scan.
+     */
+    static class Entry {
+
+        /**
+         * The line of each deferred call, in the scan order.
+         */
+        private final List<String> calls = new ArrayList<>();
+
+        /**
+         * The names of the global variables the scan initialized.
+         */
+        private final List<String> initializedGlobals = new ArrayList<>();
+
+        /**
+         * The variables the arguments of each deferred call referred to, while the scan is recorded.
+         */
+        private List<Variable[]> liveBindings = new ArrayList<>();
+
+        /**
+         * The recorded variables the arguments of each deferred call referred to, in the scan order.
+         */
+        private final List<ArgumentBinding[]> bindings = new ArrayList<>();
+
+        /**
+         * Records a deferred method call.
+         *
+         * @param call     The call line.
+         * @param bindings The variables the call's arguments refer to.
+         */
+        void addCall(String call, Variable[] bindings) {
+            this.liveBindings.add(bindings);
+            this.calls.add(call);
+        }
+
+        /**
+         * Records a global variable which was initialized by the scan.
+         *
+         * @param name The variable name.
+         */
+        void initializeGlobal(String name) {
+            this.initializedGlobals.add(name);
+        }
+
+        /**
+         * Records the state of the variables the deferred calls pass, once the scan is over.
+         *
+         * @param method The scanned method.
+         */
+        void finish(Method method) {
+            for (Variable[] live : this.liveBindings) {
+                ArgumentBinding[] recorded = new ArgumentBinding[live.length];
+                for (int i = 0; i < live.length; i++) recorded[i] = ArgumentBinding.of(live[i], method);
+                this.bindings.add(recorded);
+            }
+            this.liveBindings = null;
+        }
+
+        /**
+         * Replays the outcome of the scan over a new verification run.
+         *
+         * @param method The (unchanged) method.
+         */
+        void replay(Method method) {
+            VerificationContext context = method.context;
+            for (int i = 0; i < this.calls.size(); i++) {
+                ArgumentBinding[] recorded = this.bindings.get(i);
+                Variable[] bindings = new Variable[recorded.length];
+                for (int j = 0; j < recorded.length; j++) bindings[j] = recorded[j].resolve(method);
+                context.methodCalls.addCall(this.calls.get(i), bindings);
+            }
+            for (String name : this.initializedGlobals) {
+                Variable variable = context.globalVariable(name);
+                if (variable != null) variable.markInitialized(method);
+            }
+        }
+
+        /**
+         * Writes the entry to a cache file.
+         *
+         * @param out The cache file's stream.
+         * @throws IOException If failed to write the entry.
+         */
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(this.calls.size());
+            for (String call : this.calls) out.writeUTF(call);
+            out.writeInt(this.initializedGlobals.size());
+            for (String name : this.initializedGlobals) out.writeUTF(name);
+            for (ArgumentBinding[] recorded : this.bindings) {
+                out.writeInt(recorded.length);
+                for (ArgumentBinding binding : recorded) binding.write(out);
+            }
+        }
+
+        /**
+         * Reads an entry from a cache file.
+         *
+         * @param in The cache file's stream.
+         * @return The entry.
+         * @throws IOException If failed to read the entry.
+         */
+        static Entry read(DataInputStream in) throws IOException {
+            Entry entry = new Entry();
+            int callsNum = in.readInt();
+            for (int i = 0; i < callsNum; i++) entry.calls.add(in.readUTF());
+            int globalsNum = in.readInt();
+            for (int i = 0; i < globalsNum; i++) entry.initializedGlobals.add(in.readUTF());
+            for (int i = 0; i < callsNum; i++) {
+                ArgumentBinding[] recorded = new ArgumentBinding[in.readInt()];
+                for (int j = 0; j < recorded.length; j++) recorded[j] = ArgumentBinding.read(in);
+                entry.bindings.add(recorded);
+            }
+            entry.liveBindings = null;
+            return entry;
+        }
+    }
+
+    /**
+     * The recorded variable a single argument of a deferred call referred to.
+     */
+    private static class ArgumentBinding {
+
+        /**
+         * The argument of a call which refers to no variable.
+         */
+        private final static ArgumentBinding NONE = new ArgumentBinding(BINDING_NONE, null, null, false, false);
+
+        /**
+         * The binding kind.
+         */
+        private final byte kind;
+
+        /**
+         * The variable name, and (of a local variable) its type name.
+         */
+        private final String name, type;
+
+        /**
+         * The final and initialized status of a local variable.
+         */
+        private final boolean isFinal, isInitialized;
+
+        /**
+         * The class's constructor.
+         *
+         * @param kind          The binding kind.
+         * @param name          The variable name (or null).
+         * @param type          The type name of a local variable (or null).
+         * @param isFinal       True if a local variable is final.
+         * @param isInitialized True if a local variable is initialized.
+         */
+        ArgumentBinding(byte kind, String name, String type, boolean isFinal, boolean isInitialized) {
+            this.kind = kind;
+            this.name = name;
+            this.type = type;
+            this.isFinal = isFinal;
+            this.isInitialized = isInitialized;
+        }
+
+        /**
+         * Records the variable an argument referred to. Globals and the method's arguments are
+         * resolved again on replay (the key holds their state), and local variables (which are
+         * not visible after the method) by their state at the end of the scan.
+         *
+         * @param variable The variable (or null).
+         * @param method   The scanned method.
+         * @return The recorded binding.
+         */
+        static ArgumentBinding of(Variable variable, Method method) {
+            if (variable == null) return NONE;
+            if (variable.declaredScope == method.context.globalScope)
+                return new ArgumentBinding(BINDING_GLOBAL, variable.getName(), null, false, false);
+            if (variable.isArgument())
+                return new ArgumentBinding(BINDING_ARGUMENT, variable.getName(), null, false, false);
+            return new ArgumentBinding(BINDING_LOCAL, variable.getName(), variable.getType(), variable.isFinal(),
+                    variable.isInitialized());
+        }
+
+        /**
+         * Resolves the recorded variable in a new verification run.
+         *
+         * @param method The (unchanged) method which is replayed.
+         * @return The variable (or null).
+         */
+        Variable resolve(Method method) {
+            switch (this.kind) {
+                case BINDING_GLOBAL:
+                    return method.context.globalVariable(this.name);
+                case BINDING_ARGUMENT:
+                    return method.arguments.get(this.name);
+                case BINDING_LOCAL:
+                    return new Variable(this.name, this.type, this.isFinal, this.isInitialized, method);
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Writes the binding to a cache file.
+         *
+         * @param out The cache file's stream.
+         * @throws IOException If failed to write the binding.
+         */
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(this.kind);
+            if (this.kind == BINDING_NONE) return;
+            out.writeUTF(this.name);
+            if (this.kind != BINDING_LOCAL) return;
+            out.writeUTF(this.type);
+            out.writeBoolean(this.isFinal);
+            out.writeBoolean(this.isInitialized);
+        }
+
+        /**
+         * Reads a binding from a cache file.
+         *
+         * @param in The cache file's stream.
+         * @return The binding.
+         * @throws IOException If failed to read the binding.
+         */
+        static ArgumentBinding read(DataInputStream in) throws IOException {
+            byte kind = in.readByte();
+            if (kind == BINDING_NONE) return NONE;
+            String name = in.readUTF();
+            if (kind != BINDING_LOCAL) return new ArgumentBinding(kind, name, null, false, false);
+            return new ArgumentBinding(kind, name, in.readUTF(), in.readBoolean(), in.readBoolean());
+        }
+    }
+}
@@ -1,27 +1,147 @@
 package oop.ex5.main;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
- * A singleton Class which holds references to the existing methods
- * in the program, alongside their names.
+ * A Class which holds the method calls of a single verification run, and
+ * checks them against the existing methods in the program once all the
+ * methods are known.
+ * Each call is parsed once, when its line is scanned, and is checked against the
+ * signatures of the declared methods, so the check neither parses the call again nor
+ * changes the state of the methods' arguments.
  */
 public class MethodCallsChecker {
 
 
     /**
-     * A list of String, which holds all the code lines in which
-     * a method is to be called.
+     * The verification run this checker belongs to.
      */
-    public static List<String> calls = new ArrayList<>();
+    private final VerificationContext context;
+
+    /**
+     * The method id of a line which is not a call of a named method.
+     */
+    private final static int NO_METHOD = -1;
+
+    /**
+     * The separator of a call's arguments.
+     */
+    private final static char COMMA = ',';
+
+    /**
+     * The white spaces bound (a character is a white space if it is not greater, as in String.trim).
+     */
+    private final static char SPACE = ' ';
+
+    /**
+     * A single method call, as it was parsed when its line was scanned.
+     */
+    private static class Call {
+
+        /**
+         * The call line (without white spaces around it).
+         */
+        private final String text;
+
+        /**
+         * The id of the called method's name (see methodId), or NO_METHOD.
+         */
+        private final int methodId;
+
+        /**
+         * The start and end offsets (in the text) of each argument, without white spaces
+         * around it, in pairs.
+         */
+        private final int[] arguments;
+
+        /**
+         * True if there are only white spaces between the call's brackets, else false.
+         */
+        private final boolean passesNothing;
+
+        /**
+         * The variables (or arguments) which the arguments referred to where the call was
+         * made (null for an argument which is not a visible name there).
+         */
+        private final Variable[] bindings;
+
+        /**
+         * The (zero based) number of the line of the call.
+         */
+        private final int line;
+
+        /**
+         * The class's constructor.
+         *
+         * @param text          The call line (without white spaces around it).
+         * @param methodId      The id of the called method's name, or NO_METHOD.
+         * @param arguments     The offsets of the arguments, in pairs.
+         * @param passesNothing True if there are only white spaces between the call's brackets.
+         * @param bindings      The variables the arguments refer to.
+         * @param line          The (zero based) number of the line of the call.
+         */
+        Call(String text, int methodId, int[] arguments, boolean passesNothing, Variable[] bindings, int line) {
+            this.text = text;
+            this.methodId = methodId;
+            this.arguments = arguments;
+            this.passesNothing = passesNothing;
+            this.bindings = bindings;
+            this.line = line;
+        }
+
+        /**
+         * Gets the number of the call's arguments.
+         *
+         * @return The number of arguments.
+         */
+        int argumentsNum() {
+            return this.arguments.length / Scope.TWO;
+        }
+
+        /**
+         * Gets a single argument.
+         *
+         * @param index The argument's index.
+         * @return The argument (without white spaces around it).
+         */
+        String argument(int index) {
+            return this.text.substring(this.arguments[Scope.TWO * index],
+                    this.arguments[Scope.TWO * index + Scope.ONE]);
+        }
+    }
+
+    /**
+     * The calls, in the order they were made.
+     */
+    private final List<Call> calls = new ArrayList<>();
+
+    /**
+     * The ids of the names of the called and declared methods.
+     */
+    private final HashMap<String, Integer> methodIds = new HashMap<>();
+
+    /**
+     * The method names, by their ids.
+     */
+    private final List<String> methodNames = new ArrayList<>();
+
+    /**
+     * The signatures of the declared methods, by the ids of their names (null for a name
+     * which no declared method has).
+     */
+    private final List<MethodSignature> signatures = new ArrayList<>();
 
     /**
      * The Class constructor.
+     *
+     * @param context The verification run this checker belongs to.
      */
-    private MethodCallsChecker() {
+    MethodCallsChecker(VerificationContext context) {
+        this.context = context;
     }
 
     /**
@@ -29,8 +149,134 @@ public class MethodCallsChecker {
      *
      * @param call The call to be addded.
      */
-    public static void addCall(String call) {
-        calls.add(call);
+    public void addCall(String call) {
+        addCall(call, null);
+    }
+
+    /**
+     * This method parses a call, and adds it to the list of calls.
+     *
+     * @param call     The call to be addded.
+     * @param bindings The variables the call's arguments refer to, or null to resolve
+     *                 them where the call is made.
+     */
+    void addCall(String call, Variable[] bindings) {
+        String text = call.trim();
+        // removes the ';' suffix
+        Matcher matcher = SjavaPattern.POSSIBLE_METHOD_CALL.matcher(text.substring(Scope.ZERO,
+                text.length() - Scope.ONE));
+        int methodId = NO_METHOD;
+        int[] arguments = new int[Scope.ZERO];
+        boolean passesNothing = false;
+        if (matcher.find()) {
+            methodId = methodId(matcher.group(Scope.ONE));
+            int start = matcher.start(Scope.TWO) + Scope.ONE, end = matcher.end(Scope.TWO) - Scope.ONE;
+            arguments = splitArguments(text, start, end);
+            // a single argument which is empty once its white spaces are removed (a comma splits it)
+            passesNothing = arguments.length == Scope.TWO && arguments[Scope.ZERO] == arguments[Scope.ONE];
+        }
+        if (bindings == null) bindings = bindArguments(text, arguments);
+        this.calls.add(new Call(text, methodId, arguments, passesNothing, bindings, this.context.currentLine));
+        if (this.context.recording != null) this.context.recording.addCall(call, bindings);
+    }
+
+    /**
+     * Adds the calls of a method which was verified apart from the rest of its file (see
+     * ParallelVerifier), by their order.
+     *
+     * @param method The checker of the method's context.
+     */
+    void addAll(MethodCallsChecker method) {
+        int[] methodIds = new int[method.methodNames.size()];
+        for (int id = Scope.ZERO; id < methodIds.length; id++) methodIds[id] = methodId(method.methodNames.get(id));
+        for (Call call : method.calls) {
+            int methodId = call.methodId == NO_METHOD ? NO_METHOD : methodIds[call.methodId];
+            this.calls.add(new Call(call.text, methodId, call.arguments, call.passesNothing, call.bindings,
+                    call.line));
+        }
+    }
+
+    /**
+     * Adds the signature of a declared method.
+     *
+     * @param method The method (whose arguments were already processed).
+     */
+    void addSignature(Method method) {
+        this.signatures.set(methodId(method.getName()), new MethodSignature(method));
+    }
+
+    /**
+     * Gets the id of a method name, which is given to the name when it is first called or declared.
+     *
+     * @param name The method name.
+     * @return The id.
+     */
+    private int methodId(String name) {
+        Integer id = this.methodIds.get(name);
+        if (id != null) return id;
+        this.methodIds.put(name, this.methodNames.size());
+        this.methodNames.add(name);
+        this.signatures.add(null);
+        return this.methodNames.size() - Scope.ONE;
+    }
+
+    /**
+     * Splits the arguments of a call at its commas, as String.split does (the empty
+     * arguments at the end are dropped, unless there is no comma at all).
+     *
+     * @param text  The call.
+     * @param start The offset of the arguments (after the '(').
+     * @param end   The end offset of the arguments (before the ')').
+     * @return The start and end offsets of each argument, without white spaces around it, in pairs.
+     */
+    private static int[] splitArguments(String text, int start, int end) {
+        int commas = Scope.ZERO;
+        for (int i = start; i < end; i++) if (text.charAt(i) == COMMA) commas++;
+        int[] arguments = new int[Scope.TWO * (commas + Scope.ONE)];
+        int argument = Scope.ZERO, argumentStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && text.charAt(i) != COMMA) continue;
+            arguments[argument++] = argumentStart;
+            arguments[argument++] = i;
+            argumentStart = i + Scope.ONE;
+        }
+        if (commas > Scope.ZERO) {
+            while (argument > Scope.ZERO && arguments[argument - Scope.TWO] == arguments[argument - Scope.ONE])
+                argument -= Scope.TWO;
+        }
+        arguments = Arrays.copyOf(arguments, argument);
+        for (int i = Scope.ZERO; i < arguments.length; i += Scope.TWO) {
+            while (arguments[i] < arguments[i + Scope.ONE] && text.charAt(arguments[i]) <= SPACE) arguments[i]++;
+            while (arguments[i] < arguments[i + Scope.ONE] &&
+                    text.charAt(arguments[i + Scope.ONE] - Scope.ONE) <= SPACE) arguments[i + Scope.ONE]--;
+        }
+        return arguments;
+    }
+
+    /**
+     * Resolves the arguments of a call to the variables (or arguments) they refer to where
+     * the call is made, as the call is checked only once all the methods are known.
+     *
+     * @param text      The call.
+     * @param arguments The offsets of the arguments, in pairs.
+     * @return The variable of each argument, or null for an argument which is not a visible name.
+     */
+    private Variable[] bindArguments(String text, int[] arguments) {
+        Variable[] bindings = new Variable[arguments.length / Scope.TWO];
+        for (int i = Scope.ZERO; i < bindings.length; i++) {
+            bindings[i] = this.context.symbols.resolve(text.substring(arguments[Scope.TWO * i],
+                    arguments[Scope.TWO * i + Scope.ONE]));
+        }
+        return bindings;
+    }
+
+    /**
+     * Gets the number of calls.
+     *
+     * @return The number of calls in the list of calls.
+     */
+    int size() {
+        return this.calls.size();
     }
 
     /**
@@ -44,47 +290,62 @@ public class MethodCallsChecker {
      *                            method arguments type.
      * @throws MethodDoesNotExist In case of a call to a non-existing method.
      */
-    public static void CheckCalls() throws BadArgumentsNum, VariableError, MethodDoesNotExist {
-        Pattern pattern = Pattern.compile(Scope.REGEX_POSSIBLE_METHOD);
-        Matcher matcher;
-        String methodName;
-        String arguments;
-        for (String call : calls) {
-            matcher = pattern.matcher(call.substring(Scope.ZERO, call.length() - Scope.ONE));
-            if (matcher.find()) {
-                methodName = matcher.group(Scope.ONE);
-                arguments = matcher.group(Scope.TWO).substring(Scope.ONE,
-                        matcher.group(Scope.TWO).length() - Scope.ONE);
-                if (Method.allMethods.containsKey(methodName))
-                    checkPossibleArguments(Method.allMethods.get(methodName), arguments);
-                else throw new MethodDoesNotExist(methodName);
-            } else throw new MethodDoesNotExist(call);
+    public void CheckCalls() throws BadArgumentsNum, VariableError, MethodDoesNotExist {
+        for (Call call : this.calls) {
+            DeferredCheckEvent event = new DeferredCheckEvent();
+            event.begin();
+            try {
+                checkCall(call);
+            } catch (BadArgumentsNum | VariableError | MethodDoesNotExist e) {
+                e.setLine(call.line);
+                // a run which collects several errors goes on with the next call
+                if (!this.context.collect(e)) throw e;
+            } finally {
+                // a call which failed its check is recorded too
+                if (event.shouldCommit()) {
+                    event.kind = DeferredCheckEvent.KIND_CALL;
+                    event.item = call.text;
+                    event.commit();
+                }
+            }
         }
     }
 
     /**
-     * This method checks if the arguments given in the method call line, matches the
-     * actual arguments of the method (by amount and by type).
+     * This method checks if a single call is valid: if it refers to a declared method, and
+     * if its arguments match the method's signature (by amount and by type).
      *
-     * @param scope     The relevant method.
-     * @param arguments A String which holds the arguments given in the call line.
-     * @throws BadArgumentsNum In case of an inappropriate number of arguments.
-     * @throws VariableError   In case of an inappropriate arguments type.
-     */
-    private static void checkPossibleArguments(Method scope, String arguments)
-            throws BadArgumentsNum, VariableError {
-        String[] splitArguments = arguments.split(Scope.REGEX_COMMA);
+     * @param call The call.
+     * @throws BadArgumentsNum    In case of an inappropriate number of arguments.
+     * @throws VariableError      In case of an inappropriate arguments type.
+     * @throws MethodDoesNotExist In case of a call to a non-existing method.
+     */
+    private void checkCall(Call call) throws BadArgumentsNum, VariableError, MethodDoesNotExist {
+        if (call.methodId == NO_METHOD) throw new MethodDoesNotExist(call.text);
+        MethodSignature signature = this.signatures.get(call.methodId);
+        if (signature == null) throw new MethodDoesNotExist(this.methodNames.get(call.methodId));
         // in case no arguments needed
-        if (splitArguments[Scope.ZERO].equals(Scope.REGEX_EMPTY) && scope.arguments.size() == Scope.ZERO)
-            return;
-        // in case of a wrong number of arguments
-        if (splitArguments.length != scope.arguments.size()) throw new BadArgumentsNum(scope.getName());
-        List<Variable> orderedArguments = new ArrayList<>(scope.arguments.values());
-        for (int i = 0; i < splitArguments.length; i++) {
-            orderedArguments.get(i).setData(splitArguments[i].trim(),
-                    true, Scope.globalScope);
+        if (call.passesNothing && signature.arity() == Scope.ZERO) return;
+        // in case of a wrong number of arguments (a call of commas only passes none)
+        int argumentsNum = call.argumentsNum();
+        if (argumentsNum != signature.arity() || argumentsNum == Scope.ZERO)
+            throw new BadArgumentsNum(signature.getName());
+        Scope globalScope = this.context.globalScope;
+        for (int i = Scope.ZERO; i < argumentsNum; i++) {
+            Variable variable = i < call.bindings.length ? call.bindings[i] : null;
+            // a global is passed in its final state (the call may refer to a copy of it, which
+            // a method verified apart from the rest of its file, or before its declaration, used)
+            if (variable != null && variable.declaredScope == globalScope) {
+                Variable global = globalScope.variables.get(variable.getName());
+                if (global != null) variable = global;
+            }
+            String value = null;
+            // a value which was not a visible name where the call was made may be a global
+            if (variable == null) {
+                value = call.argument(i);
+                variable = this.context.symbols.resolve(value);
+            }
+            signature.checkArgument(i, value, variable);
         }
     }
 }
-
-
@@ -3,7 +3,7 @@ package oop.ex5.main;
 /**
  * a class of Method errors exceptions.
  */
-public class MethodError extends Exception {
+public class MethodError extends SjavaError {
 
     /**
      * super constructor for a Method Error
@@ -13,6 +13,16 @@ public class MethodError extends Exception {
     public MethodError(String errorMessage) {
         super(errorMessage);
     }
+
+    /**
+     * super constructor for a Method Error with an error code.
+     *
+     * @param code      The error code.
+     * @param arguments The message arguments.
+     */
+    MethodError(Code code, Object... arguments) {
+        super(code, arguments);
+    }
 }
 
 /**
@@ -23,7 +33,7 @@ class BadMethodNameDigit extends MethodError {
      * The Error constructor.
      */
     public BadMethodNameDigit(String name) {
-        super("'" + name + "' is an invalid Method Name, can't start with a digit.");
+        super(Code.BAD_METHOD_NAME_DIGIT, name);
     }
 }
 
@@ -35,7 +45,7 @@ class BadMethodNameUnderscore extends MethodError {
      * The Error constructor.
      */
     public BadMethodNameUnderscore(String name) {
-        super("'" + name + "' is an invalid Method Name, can't start with an underscore.");
+        super(Code.BAD_METHOD_NAME_UNDERSCORE, name);
     }
 }
 
@@ -47,7 +57,7 @@ class BadMethodNameIllegal extends MethodError {
      * The Error constructor.
      */
     public BadMethodNameIllegal(String name) {
-        super("'" + name + "' is an invalid Method Name, contains illegal characters.");
+        super(Code.BAD_METHOD_NAME_ILLEGAL, name);
     }
 }
 
@@ -59,7 +69,7 @@ class BadMethodNameSavedKeyword extends MethodError {
      * The Error constructor.
      */
     public BadMethodNameSavedKeyword(String name) {
-        super("'" + name + "' is an invalid Method Name, This name is a saved keyword.");
+        super(Code.BAD_METHOD_NAME_SAVED_KEYWORD, name);
     }
 }
 
@@ -71,8 +81,7 @@ class BadMethodNameAlreadyExists extends MethodError {
      * The Error constructor.
      */
     public BadMethodNameAlreadyExists(String name) {
-        super("'Method '" + name +
-                "' is already defined.");
+        super(Code.BAD_METHOD_NAME_ALREADY_EXISTS, name);
     }
 }
 
@@ -84,7 +93,7 @@ class BadMethodType extends MethodError {
      * The Error constructor.
      */
     public BadMethodType(String type) {
-        super("" + type + " is not a valid Method type, Sjava supports only void methods.");
+        super(Code.BAD_METHOD_TYPE, type);
     }
 }
 
@@ -96,7 +105,7 @@ class MethodDoesNotExist extends MethodError {
      * The Error constructor.
      */
     public MethodDoesNotExist(String name) {
-        super("Cannot resolve symbol '" + name + "'.");
+        super(Code.METHOD_DOES_NOT_EXIST, name);
     }
 }
 
@@ -108,7 +117,7 @@ class MissingReturnStatement extends MethodError {
      * The Error constructor.
      */
     public MissingReturnStatement(Method method) {
-        super("Missing return statement in '" + method.getName() + "' method.");
+        super(Code.MISSING_RETURN_STATEMENT, method.getName());
     }
 }
 
@@ -120,8 +129,7 @@ class BadArgumentsNum extends MethodError {
      * The Error constructor.
      */
     BadArgumentsNum(String name) {
-        super("Actual and formal argument lists of method '" +
-                name + "' differ in length.");
+        super(Code.BAD_ARGUMENTS_NUM, name);
     }
 }
 
@@ -133,8 +141,7 @@ class InvalidMethodCreation extends MethodError {
      * The Error constructor.
      */
     InvalidMethodCreation(String name) {
-        super("'" + name +
-                "' can not be declared inside another Method.");
+        super(Code.INVALID_METHOD_CREATION, name);
     }
 }
 
@@ -146,8 +153,7 @@ class InvalidMethodCall extends MethodError {
      * The Error constructor.
      */
     InvalidMethodCall(String name) {
-        super("'" + name +
-                "' can not be called from the global scope.");
+        super(Code.INVALID_METHOD_CALL, name);
     }
 }
 
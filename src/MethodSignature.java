@@ -0,0 +1,85 @@
+package oop.ex5.main;
+
+/**
+ * The immutable signature of a declared method: its arity, and the packed types of its
+ * arguments (each argument's type bit, with the bits of the types which may be passed to
+ * it), so a call is checked against it without touching the method's argument variables.
+ */
+final class MethodSignature {
+
+    /**
+     * The shift of the passable types of an argument within its packed type, and the mask
+     * of its own type bit.
+     */
+    private final static int PASSABLE_SHIFT = 16, TYPE_MASK = (1 << PASSABLE_SHIFT) - 1;
+
+    /**
+     * The method name.
+     */
+    private final String name;
+
+    /**
+     * The method's arguments, by their order (used only to name them in errors).
+     */
+    private final Variable[] parameters;
+
+    /**
+     * The packed type of each argument.
+     */
+    private final int[] types;
+
+    /**
+     * The class's constructor.
+     *
+     * @param method The declared method (whose arguments were already processed).
+     */
+    MethodSignature(Method method) {
+        this.name = method.getName();
+        this.parameters = method.arguments.values().toArray(new Variable[0]);
+        this.types = new int[this.parameters.length];
+        for (int i = 0; i < this.parameters.length; i++) {
+            Variable parameter = this.parameters[i];
+            this.types[i] = parameter.typeBit() | parameter.assignableTypes() << PASSABLE_SHIFT;
+        }
+    }
+
+    /**
+     * Gets the method name.
+     *
+     * @return The method name.
+     */
+    String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the number of the method's arguments.
+     *
+     * @return The arity.
+     */
+    int arity() {
+        return this.types.length;
+    }
+
+    /**
+     * Checks a value which a call passes to one of the method's arguments.
+     *
+     * @param index    The argument's index.
+     * @param value    The passed value.
+     * @param variable The variable (or argument) the value refers to, or null.
+     * @throws VariableError If the passed value is invalid for the argument.
+     */
+    void checkArgument(int index, String value, Variable variable) throws VariableError {
+        int type = this.types[index];
+        if (variable != null) {
+            if (!variable.isArgument() && !variable.isInitialized())
+                throw new UninitializedParameter(variable.getName());
+            if ((variable.typeBit() & type >>> PASSABLE_SHIFT) == LiteralClassifier.NONE)
+                throw new IllegalVariableCasting(this.parameters[index], variable);
+            return;
+        }
+        if ((LiteralClassifier.classify(value) & type & TYPE_MASK) != LiteralClassifier.NONE) return;
+        if (this.parameters[index].getName().equals(value)) throw new SelfAssign(value);
+        throw new BadVariableData(this.parameters[index], value);
+    }
+}
@@ -0,0 +1,381 @@
+package oop.ex5.main;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The verification of the methods of a single file in parallel.
+ * The run's global scan only collects the methods it reaches (see
+ * VerificationContext.pendingMethods). Once it is over, and all the global variables are
+ * known, every method is verified as a fork-join task, in a context of its own, which sees
+ * each global variable through a copy of it, in the state it had at the method's
+ * declaration (a global variable which is declared after the method is seen as the global
+ * scope initializes it, as through the pre-pass of a sequential run, see GlobalIndex, which
+ * also holds the global variables after an error that stopped the global scan). The
+ * methods are then merged by their order in the file: each is declared, its initializations
+ * of global variables are applied, and its deferred calls are added to the run, so the run's
+ * final checks, and the error it reports (of the earliest method or global line), are
+ * exactly those of a sequential run.
+ * A method which sees a global variable that an earlier method initialized is verified
+ * again while it is merged, once the variable's state at its declaration is known. A method
+ * which initializes a global variable before the global scope itself does changes the
+ * global scope's own checks, so a file with such a method is verified again sequentially.
+ */
+final class ParallelVerifier {
+
+    /**
+     * The number of lines of methods which a task verifies by itself (instead of forking).
+     */
+    private final static int GRAIN_LINES = 1024;
+
+    /**
+     * The context of the run.
+     */
+    private final VerificationContext context;
+
+    /**
+     * The intermediate representation of the file.
+     */
+    private final SjavaTree tree;
+
+    /**
+     * The global variables which the run's pre-pass indexed, or null.
+     */
+    private final GlobalIndex index;
+
+    /**
+     * The verifications of the file's methods, by their order.
+     */
+    private final List<MethodRun> methods = new ArrayList<>();
+
+    /**
+     * The class's constructor.
+     *
+     * @param context The context of the run, whose global scan collected its methods.
+     * @param tree    The intermediate representation of the file.
+     * @param index   The global variables which the run's pre-pass indexed (or null).
+     */
+    ParallelVerifier(VerificationContext context, SjavaTree tree, GlobalIndex index) {
+        this.context = context;
+        this.tree = tree;
+        this.index = index;
+        for (int node : context.pendingMethods) this.methods.add(new MethodRun(node));
+        context.pendingMethods = null;
+    }
+
+    /**
+     * Verifies the methods in parallel, and merges them into the run by their order.
+     *
+     * @param pool The pool the methods are verified on.
+     * @return True if the methods were merged, or false if the file must be verified again sequentially.
+     * @throws ScopeError    If there is Scope error.
+     * @throws MethodError   If there is Method error.
+     * @throws VariableError If there is Variable error.
+     */
+    boolean verify(ForkJoinPool pool) throws ScopeError, MethodError, VariableError {
+        if (!this.methods.isEmpty()) pool.invoke(new MethodsTask(0, this.methods.size()));
+        for (MethodRun method : this.methods) {
+            // the method saw a global variable which an earlier method initialized since
+            if (!method.globals.isCurrent()) method.verify();
+            if (method.stats != null) this.context.stats.add(method.stats);
+            if (method.error != null) rethrow(method.error);
+            if (!method.globals.apply()) return false;
+            try {
+                method.method.declare(this.context);
+            } catch (MethodError e) {
+                e.setLine(method.firstLine);
+                throw e;
+            }
+            this.context.globalScope.innerScopes.add(method.method);
+            this.context.methodCalls.addAll(method.context.methodCalls);
+        }
+        return true;
+    }
+
+    /**
+     * Throws the error of a method's verification.
+     *
+     * @param error The error (a Scope, Method or Variable error).
+     * @throws ScopeError    If the error is a Scope error.
+     * @throws MethodError   If the error is a Method error.
+     * @throws VariableError If the error is a Variable error.
+     */
+    private static void rethrow(SjavaError error) throws ScopeError, MethodError, VariableError {
+        if (error instanceof ScopeError) throw (ScopeError) error;
+        if (error instanceof MethodError) throw (MethodError) error;
+        throw (VariableError) error;
+    }
+
+    /**
+     * The verification of a single method, in a context of its own.
+     */
+    private final class MethodRun {
+
+        /**
+         * The node of the method in the tree.
+         */
+        private final int node;
+
+        /**
+         * The (zero based) number of the method's declaration line.
+         */
+        private final int firstLine;
+
+        /**
+         * The global variables the method sees.
+         */
+        private GlobalsView globals;
+
+        /**
+         * The context of the method.
+         */
+        private VerificationContext context;
+
+        /**
+         * The statistics of the method's verification (or null).
+         */
+        private VerificationStats stats;
+
+        /**
+         * The verified method (or null, if its verification failed).
+         */
+        private Method method;
+
+        /**
+         * The error of the method's verification (or null).
+         */
+        private SjavaError error;
+
+        /**
+         * The class's constructor.
+         *
+         * @param node The node of the method in the tree.
+         */
+        MethodRun(int node) {
+            this.node = node;
+            this.firstLine = ParallelVerifier.this.tree.firstLine(node);
+        }
+
+        /**
+         * Verifies the method (again, if it was already verified).
+         */
+        void verify() {
+            VerificationContext run = ParallelVerifier.this.context;
+            SjavaTree tree = ParallelVerifier.this.tree;
+            this.globals = new GlobalsView(run.globalScope, ParallelVerifier.this.index, this.firstLine);
+            this.stats = run.stats == null ? null : new VerificationStats();
+            this.context = new VerificationContext(run, this.globals, this.stats);
+            // as in the global scan, a replayed cached method adds its checks at its declaration line
+            this.context.currentLine = this.firstLine;
+            ScopeEvent event = new ScopeEvent();
+            event.begin();
+            try {
+                this.method = new Method(this.context, tree, this.node, run.globalScope, tree.name(this.node));
+                this.error = null;
+            } catch (ScopeError | MethodError | VariableError e) {
+                e.setLine(this.firstLine);
+                this.method = null;
+                this.error = e;
+            } finally {
+                // a method which failed is recorded too, as in the global scan
+                if (event.shouldCommit()) {
+                    event.name = tree.name(this.node);
+                    event.kind = VerifierEvent.KIND_METHOD;
+                    event.lineCount = tree.lastLine(this.node) - this.firstLine + 1;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * A task which verifies a range of the methods.
+     */
+    private final class MethodsTask extends RecursiveAction {
+
+        /**
+         * The index of the range's first method, and the index after its last method.
+         */
+        private final int from, to;
+
+        /**
+         * The class's constructor.
+         *
+         * @param from The index of the range's first method.
+         * @param to   The index after the range's last method.
+         */
+        MethodsTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Verifies the range's methods, or splits the range between two tasks.
+         */
+        @Override
+        protected void compute() {
+            List<MethodRun> methods = ParallelVerifier.this.methods;
+            SjavaTree tree = ParallelVerifier.this.tree;
+            int lines = tree.lastLine(methods.get(this.to - 1).node) - methods.get(this.from).firstLine;
+            if (this.to - this.from == 1 || lines <= GRAIN_LINES) {
+                for (int i = this.from; i < this.to; i++) methods.get(i).verify();
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new MethodsTask(this.from, middle), new MethodsTask(middle, this.to));
+        }
+    }
+
+    /**
+     * The global variables which a single method sees: copies of the global variables, in
+     * the state they had at its declaration, which are made once the method first refers to
+     * them. A global variable which the global scan never declared (as it stopped at an
+     * error before it) is copied from the run's index.
+     */
+    static final class GlobalsView {
+
+        /**
+         * The run's global scope.
+         */
+        private final Scope globalScope;
+
+        /**
+         * The global variables which the run's pre-pass indexed, or null.
+         */
+        private final GlobalIndex index;
+
+        /**
+         * The (zero based) number of the method's declaration line.
+         */
+        private final int line;
+
+        /**
+         * The copies of the global variables, by their names.
+         */
+        private final Map<String, Variable> copies = new HashMap<>();
+
+        /**
+         * The scope each copied variable was initialized in when it was copied (null if it
+         * was not initialized), by its name.
+         */
+        private final Map<String, Scope> copiedScopes = new HashMap<>();
+
+        /**
+         * The class's constructor.
+         *
+         * @param globalScope The run's global scope.
+         * @param index       The global variables which the run's pre-pass indexed (or null).
+         * @param line        The (zero based) number of the method's declaration line.
+         */
+        GlobalsView(Scope globalScope, GlobalIndex index, int line) {
+            this.globalScope = globalScope;
+            this.index = index;
+            this.line = line;
+        }
+
+        /**
+         * Gets the copy of a global variable.
+         *
+         * @param name The variable name.
+         * @return The copy, or null if there is no global variable of this name.
+         */
+        Variable get(String name) {
+            Variable copy = this.copies.get(name);
+            if (copy != null) return copy;
+            Variable global = global(name);
+            if (global == null) return null;
+            Scope initializedScope = initializedScope(global);
+            copy = new Variable(global, this.globalScope, initializedScope);
+            this.copies.put(name, copy);
+            this.copiedScopes.put(name, initializedScope);
+            return copy;
+        }
+
+        /**
+         * Gets a global variable of the run, or of its index if the global scan never declared it.
+         *
+         * @param name The variable name.
+         * @return The variable, or null if there is no global variable of this name.
+         */
+        private Variable global(String name) {
+            Variable global = this.globalScope.variables.get(name);
+            if (global == null && this.index != null) return this.index.get(name);
+            return global;
+        }
+
+        /**
+         * Gets the scope a global variable was initialized in, as of the method's declaration.
+         *
+         * @param global The global variable.
+         * @return The scope (or null if the variable was not initialized yet).
+         */
+        private Scope initializedScope(Variable global) {
+            // a global which is declared after the method is initialized only by the global scope
+            if (isForward(global)) return isInitializedGlobally(global) ? this.globalScope : null;
+            // the global scan is over, but its initializations after the method are not seen by it
+            if (global.initializedScope == this.globalScope && global.initializedLine >= this.line) return null;
+            return global.initializedScope;
+        }
+
+        /**
+         * Checks if a global variable is initialized by the global scope itself.
+         *
+         * @param global The global variable.
+         * @return True if the global scope (or, for an indexed variable, the index's own global
+         * scope) initializes the variable, false otherwise.
+         */
+        private boolean isInitializedGlobally(Variable global) {
+            if (global.initializedScope == this.globalScope) return true;
+            return this.globalScope.variables.get(global.getName()) != global && global.isInitialized();
+        }
+
+        /**
+         * Checks if a global variable is declared after the method.
+         *
+         * @param global The global variable.
+         * @return True if the method refers to the variable before its declaration, false otherwise.
+         */
+        private boolean isForward(Variable global) {
+            return global.declaredLine >= this.line;
+        }
+
+        /**
+         * Checks if the copies are still in the state of their global variables, which the
+         * earlier methods' initializations (see apply) may have changed.
+         *
+         * @return True if every copy was made in its variable's current state, false otherwise.
+         */
+        boolean isCurrent() {
+            for (Map.Entry<String, Scope> copied : this.copiedScopes.entrySet()) {
+                if (initializedScope(global(copied.getKey())) != copied.getValue())
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Applies the method's initializations of global variables to the variables themselves.
+         *
+         * The initializations of a global variable which is declared after the method are the
+         * method's own (as of a sequential run's copy of the variable, see GlobalIndex).
+         *
+         * @return True if they were applied, or false if the global scope initializes one of
+         * the variables after the method (so the global scope's own checks were not those of a
+         * sequential run).
+         */
+        boolean apply() {
+            for (Map.Entry<String, Variable> copy : this.copies.entrySet()) {
+                if (this.copiedScopes.get(copy.getKey()) != null || !copy.getValue().isInitialized()) continue;
+                Variable global = global(copy.getKey());
+                if (isForward(global)) continue;
+                if (global.initializedScope != null) return false;
+                global.markInitialized(copy.getValue().initializedScope);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package oop.ex5.main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A content-addressed store of whole-file verification results, kept in a memory-mapped file.
+ * A file's result is keyed by a hash of the verifier version and the file's content, so a
+ * file which did not change since it was last verified (under any path) gets its stored
+ * result without being parsed at all.
+ * The store file has a fixed size. Records are only appended to it, and every lookup marks
+ * its record as recently used; when there is no room for a new record, the store is
+ * compacted - only the most recently used records are kept, in half of the file.
+ * I/O errors are not stored, as they are not a property of the file's content.
+ * A store may be used by several threads, but only by a single process at a time.
+ */
+public class ResultStore implements Closeable {
+
+    /**
+     * The option which sets the result store file.
+     */
+    public final static String RESULTS_OPTION = "--results";
+
+    /**
+     * The default size of the store file (64MB).
+     */
+    public final static int DEFAULT_CAPACITY = 64 << 20;
+
+    /**
+     * The magic number of a store file, and the version of its format.
+     */
+    private final static int MAGIC = 0x536A5253, FORMAT = 2;
+
+    /**
+     * The offsets of the header fields: the magic number, the format, the end of the records,
+     * and the use clock.
+     */
+    private final static int MAGIC_OFFSET = 0, FORMAT_OFFSET = 4, END_OFFSET = 8, CLOCK_OFFSET = 12,
+            HEADER_SIZE = 32;
+
+    /**
+     * The hash algorithm of the keys, and the size of a key.
+     */
+    private final static String HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * The sizes of a record's fields: the key, the last use time, the output type, the error
+     * line and a string length.
+     */
+    private final static int KEY_SIZE = 32, USE_SIZE = 8, TYPE_SIZE = 1, LINE_SIZE = 4, LENGTH_SIZE = 4;
+
+    /**
+     * The size of the fixed part of a record (everything but its strings).
+     */
+    private final static int RECORD_FIXED_SIZE = KEY_SIZE + USE_SIZE + TYPE_SIZE + LINE_SIZE + 2 * LENGTH_SIZE;
+
+    /**
+     * All the output types, by their ordinal number.
+     */
+    private final static Sjavac.OutputType[] OUTPUT_TYPES = Sjavac.OutputType.values();
+
+    /**
+     * The store file.
+     */
+    private final RandomAccessFile file;
+
+    /**
+     * The lock which keeps other processes away from the store file.
+     */
+    private final FileLock lock;
+
+    /**
+     * The mapped store file.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The offset of every record, by its key.
+     */
+    private final Map<ByteBuffer, Integer> index = new HashMap<>();
+
+    /**
+     * The class's constructor. Opens (or creates) a store file of the default size.
+     *
+     * @param path The store file path.
+     * @throws IOException If the file could not be opened, or is in use by another process.
+     */
+    public ResultStore(Path path) throws IOException {
+        this(path, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * The class's constructor. Opens (or creates) a store file.
+     *
+     * @param path     The store file path.
+     * @param capacity The size of the store file (a file of another size is resized, and
+     *                 emptied if it was created with another format).
+     * @throws IOException If the file could not be opened, or is in use by another process.
+     */
+    public ResultStore(Path path, int capacity) throws IOException {
+        if (capacity <= HEADER_SIZE) throw new IllegalArgumentException("The result store is too small.");
+        this.file = new RandomAccessFile(path.toFile(), "rw");
+        try {
+            this.lock = this.file.getChannel().tryLock();
+            if (this.lock == null) throw new IOException("The result store " + path + " is in use.");
+            this.file.setLength(capacity);
+            this.buffer = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+        if (this.buffer.getInt(MAGIC_OFFSET) != MAGIC || this.buffer.getInt(FORMAT_OFFSET) != FORMAT) clear();
+        loadIndex();
+    }
+
+    /**
+     * Computes the key of a file: the hash of the verifier version and the file's content.
+     *
+     * @param filePath The file path.
+     * @return The key.
+     * @throws IOException If the file could not be read.
+     */
+    public static byte[] key(String filePath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+        digest.update(Verifier.VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        try (RandomAccessFile source = new RandomAccessFile(filePath, "r");
+             FileChannel channel = source.getChannel()) {
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Gets the stored result of a file, and marks it as recently used.
+     *
+     * @param key    The file's key.
+     * @param source The file path (the source of the returned result).
+     * @return The stored result, or null if the store has no result for the key.
+     */
+    public synchronized VerificationResult get(byte[] key, String source) {
+        Integer offset = this.index.get(ByteBuffer.wrap(key));
+        if (offset == null) return null;
+        this.buffer.putLong(offset + KEY_SIZE, tick());
+        int position = offset + KEY_SIZE + USE_SIZE;
+        Sjavac.OutputType outputType = OUTPUT_TYPES[this.buffer.get(position)];
+        position += TYPE_SIZE;
+        int line = this.buffer.getInt(position);
+        position += LINE_SIZE;
+        String description = readString(position);
+        position += LENGTH_SIZE + this.buffer.getInt(position);
+        String message = readString(position);
+        return new VerificationResult(source, outputType,
+                outputType == Sjavac.OutputType.LEGAL ? null : new StoredError(description, message, line));
+    }
+
+    /**
+     * Stores the result of a file (unless it is an I/O error, or already stored).
+     *
+     * @param key    The file's key.
+     * @param result The file's result.
+     */
+    public synchronized void put(byte[] key, VerificationResult result) {
+        ByteBuffer keyBuffer = ByteBuffer.wrap(key.clone());
+        if (result.getOutputType() == Sjavac.OutputType.IO_ERROR || this.index.containsKey(keyBuffer)) return;
+        Exception error = result.getError();
+        byte[] description = (error == null ? Scope.REGEX_EMPTY : error.toString()).getBytes(StandardCharsets.UTF_8);
+        byte[] message = result.getMessage().getBytes(StandardCharsets.UTF_8);
+        int size = RECORD_FIXED_SIZE + description.length + message.length;
+        // a record which takes more than half of the store is never kept
+        if (size > (this.buffer.capacity() - HEADER_SIZE) / 2) return;
+        if (end() + size > this.buffer.capacity()) compact();
+        int offset = end();
+        this.buffer.put(offset, key);
+        this.buffer.putLong(offset + KEY_SIZE, tick());
+        this.buffer.put(offset + KEY_SIZE + USE_SIZE, (byte) result.getOutputType().ordinal());
+        this.buffer.putInt(offset + KEY_SIZE + USE_SIZE + TYPE_SIZE, result.getLine());
+        int position = writeString(offset + KEY_SIZE + USE_SIZE + TYPE_SIZE + LINE_SIZE, description);
+        position = writeString(position, message);
+        this.buffer.putInt(END_OFFSET, position);
+        this.index.put(keyBuffer, offset);
+    }
+
+    /**
+     * Writes the store to the disk, and closes it.
+     *
+     * @throws IOException If the file could not be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.buffer.force();
+        this.lock.release();
+        this.file.close();
+    }
+
+    /**
+     * Removes all the records, and writes a new header.
+     */
+    private void clear() {
+        this.buffer.putInt(MAGIC_OFFSET, MAGIC);
+        this.buffer.putInt(FORMAT_OFFSET, FORMAT);
+        this.buffer.putInt(END_OFFSET, HEADER_SIZE);
+        this.buffer.putLong(CLOCK_OFFSET, 0);
+        this.index.clear();
+    }
+
+    /**
+     * Builds the index of the records. A record which is cut in the middle (by a run which
+     * was stopped while writing it) ends the records.
+     */
+    private void loadIndex() {
+        int end = Math.min(Math.max(end(), HEADER_SIZE), this.buffer.capacity()), offset = HEADER_SIZE;
+        while (offset < end) {
+            int size = recordSize(offset, end);
+            if (size == -1) break;
+            byte[] key = new byte[KEY_SIZE];
+            this.buffer.get(offset, key);
+            this.index.put(ByteBuffer.wrap(key), offset);
+            offset += size;
+        }
+        this.buffer.putInt(END_OFFSET, offset);
+    }
+
+    /**
+     * Gets the size of a record.
+     *
+     * @param offset The record offset.
+     * @param end    The end of the records.
+     * @return The size of the record, or -1 if the record does not end before the end of the records.
+     */
+    private int recordSize(int offset, int end) {
+        int position = offset + KEY_SIZE + USE_SIZE + TYPE_SIZE + LINE_SIZE;
+        for (int i = 0; i < 2; i++) {
+            if (position + LENGTH_SIZE > end) return -1;
+            int length = this.buffer.getInt(position);
+            if (length < 0 || length > end - position - LENGTH_SIZE) return -1;
+            position += LENGTH_SIZE + length;
+        }
+        return position - offset;
+    }
+
+    /**
+     * Keeps only the most recently used records which fit in half of the store.
+     */
+    private void compact() {
+        List<Integer> offsets = new ArrayList<>(this.index.values());
+        offsets.sort((first, second) -> Long.compare(this.buffer.getLong(second + KEY_SIZE),
+                this.buffer.getLong(first + KEY_SIZE)));
+        int end = end(), budget = (this.buffer.capacity() - HEADER_SIZE) / 2;
+        List<byte[]> kept = new ArrayList<>();
+        for (int offset : offsets) {
+            int size = recordSize(offset, end);
+            if (size > budget) break;
+            byte[] record = new byte[size];
+            this.buffer.get(offset, record);
+            kept.add(record);
+            budget -= size;
+        }
+        long clock = this.buffer.getLong(CLOCK_OFFSET);
+        clear();
+        this.buffer.putLong(CLOCK_OFFSET, clock);
+        // the records are written back from the least recently used one, so the file stays in use order
+        int offset = HEADER_SIZE;
+        for (int i = kept.size() - 1; i >= 0; i--) {
+            byte[] record = kept.get(i);
+            this.buffer.put(offset, record);
+            this.index.put(ByteBuffer.wrap(Arrays.copyOf(record, KEY_SIZE)), offset);
+            offset += record.length;
+        }
+        this.buffer.putInt(END_OFFSET, offset);
+    }
+
+    /**
+     * Gets the end of the records.
+     *
+     * @return The offset just after the last record.
+     */
+    private int end() {
+        return this.buffer.getInt(END_OFFSET);
+    }
+
+    /**
+     * Advances the use clock.
+     *
+     * @return The new use time.
+     */
+    private long tick() {
+        long clock = this.buffer.getLong(CLOCK_OFFSET) + 1;
+        this.buffer.putLong(CLOCK_OFFSET, clock);
+        return clock;
+    }
+
+    /**
+     * Reads a string field.
+     *
+     * @param position The field offset.
+     * @return The string.
+     */
+    private String readString(int position) {
+        byte[] bytes = new byte[this.buffer.getInt(position)];
+        this.buffer.get(position + LENGTH_SIZE, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a string field.
+     *
+     * @param position The field offset.
+     * @param bytes    The string's bytes.
+     * @return The offset just after the field.
+     */
+    private int writeString(int position, byte[] bytes) {
+        this.buffer.putInt(position, bytes.length);
+        this.buffer.put(position + LENGTH_SIZE, bytes);
+        return position + LENGTH_SIZE + bytes.length;
+    }
+
+    /**
+     * The error of a stored result, which is printed exactly as the original error was, and
+     * is reported at the original error's line.
+     */
+    private static class StoredError extends SjavaError {
+
+        /**
+         * The original error's description (its toString).
+         */
+        private final String description;
+
+        /**
+         * The class's constructor.
+         *
+         * @param description The original error's description.
+         * @param message     The original error's message.
+         * @param line        The original error's (one based) line number, or NO_LINE.
+         */
+        StoredError(String description, String message, int line) {
+            super(message);
+            this.description = description;
+            if (line != NO_LINE) setLine(line - 1);
+        }
+
+        /**
+         * Gets the original error's description.
+         *
+         * @return The description.
+         */
+        @Override
+        public String toString() {
+            return this.description;
+        }
+    }
+}
@@ -5,8 +5,6 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 /**
  * This class represents a scope in the s-Java program. each instance
@@ -35,15 +33,6 @@ public class Scope {
             REGEX_CLOSED_BRACKET = "}", REGEX_COMMENT = "//", REGEX_COMMA = ",",
             REGEX_SINGLE_SPACE = " ", REGEX_OR = "||", REGEX_AND = "&&", REGEX_EMPTY = "";
 
-    /**
-     * Long regex expressions.
-     */
-    public final static String REGEX_CONDITION = "^\\s*(if|while)\\s*\\(.*\\)\\s*",
-            REGEX_METHOD = "^\\s*(\\w+)(\\s+)(\\w+)\\s*\\(.*\\)\\s*",
-            REGEX_POSSIBLE_METHOD = "^\\s*([a-zA-Z0-9_]+)\\s*(\\(.*\\))\\s*$",
-            REGEX_POSSIBLE_ASSIGN = "^(\\S+)\\s*=\\s*(\\S+)$",
-            REGEX_RETURN = "^\\s*return\\s*;\\s*$";
-
     /**
      * Scope types names.
      */
@@ -55,11 +44,6 @@ public class Scope {
     private final static String METHOD_TYPE_VOID = "void";
 
 
-    /**
-     * A static variable which hold a reference to the program's global scope.
-     */
-    public static Scope globalScope;
-
     /**
      * A HashMap of all the scope variables.
      */
@@ -71,9 +55,25 @@ public class Scope {
     protected LinkedHashMap<String, Variable> arguments = new LinkedHashMap<>();
 
     /**
-     * The scope's data. Each line is preserved in a single list cell.
+     * The verification run this scope belongs to.
+     */
+    protected final VerificationContext context;
+
+    /**
+     * The intermediate representation of the entire file.
+     */
+    protected final SjavaTree tree;
+
+    /**
+     * The node of this scope in the tree.
+     */
+    protected final int node;
+
+    /**
+     * The first and last lines of this scope in the file's line buffer (the scope's
+     * declaration line and closing bracket line, if it has them).
      */
-    protected List<String> rawData;
+    protected final int firstLine, lastLine;
 
     /**
      * A list of the scope's inner scopes.
@@ -86,36 +86,44 @@ public class Scope {
     protected Scope outerScope;
 
     /**
-     * The scope length (number of lines).
+     * The scope name.
      */
-    protected int length;
+    protected String name;
 
     /**
-     * The scope name.
+     * The tokenizer of the scope's single line commands (shared with the outer scopes).
      */
-    protected String name;
+    protected final SjavaLexer lexer;
 
 
     /**
      * The Scope Class constructor.
      *
-     * @param scopeData  The scope code lines.
+     * @param context    The verification run this scope belongs to.
+     * @param tree       The intermediate representation of the file.
+     * @param node       The node of the scope in the tree.
      * @param outerScope The scope which wraps this scope.
      * @param name       The scope name.
      */
-    public Scope(List<String> scopeData, Scope outerScope, String name) {
+    public Scope(VerificationContext context, SjavaTree tree, int node, Scope outerScope, String name) {
         this.name = name;
-        if (this.name.equals(GLOBAL_SCOPE_NAME)) Scope.globalScope = this;
-        this.length = scopeData.size();
-        this.rawData = scopeData;
+        this.context = context;
+        if (this.name.equals(GLOBAL_SCOPE_NAME)) context.globalScope = this;
+        this.tree = tree;
+        this.node = node;
+        this.firstLine = tree.firstLine(node);
+        this.lastLine = tree.lastLine(node);
         this.outerScope = outerScope;
+        // a method which is verified in a context of its own may run on another thread
+        this.lexer = (outerScope == null || outerScope.context != context) ? new SjavaLexer() : outerScope.lexer;
+        if (context.stats != null) context.stats.countScope();
     }
 
     /**
      * The scope's data decoder.
-     * This method iterates over the scope's data (each iteration scans an
-     * individual code line). according to the exercise's instructions, and the
-     * s-Java coding specifications, this method matched each line to it's
+     * This method iterates over the scope's inner nodes in the tree (each node is an
+     * individual code line, or an inner scope). according to the exercise's instructions,
+     * and the s-Java coding specifications, this method matched each node to it's
      * appropriate cipher.
      *
      * @throws ScopeError    If there is Scope error.
@@ -123,92 +131,135 @@ public class Scope {
      * @throws VariableError If there is Variable error.
      */
     protected void scan() throws ScopeError, MethodError, VariableError {
-        int maxLineNum = this.rawData.size();
-        String line;
-        for (int lineNum = 0; lineNum < maxLineNum; lineNum++) {
-            line = this.rawData.get(lineNum);
-            // in case the current is a comment line or an empty line.
-            if (line.startsWith(REGEX_COMMENT) || line.trim().isEmpty()) {
-            }
-            // in case of a declaration or assignment
-            else if (line.trim().endsWith(REGEX_SEMICOLON)) singleLineCommand(line);
-                // in case of a new scope creation
-            else if (line.trim().endsWith(REGEX_OPEN_BRACKET)) lineNum += scopeCreation(line, lineNum) - ONE;
-                // in case of invalid line syntax
-            else {
-                throw new InvalidSyntax(line);
+        for (int child = this.tree.firstChild(this.node); child != SjavaTree.NONE;
+             child = this.tree.nextSibling(child)) {
+            this.context.currentLine = this.tree.firstLine(child);
+            try {
+                switch (this.tree.kind(child)) {
+                    // in case of a declaration or assignment
+                    case STATEMENT:
+                        singleLineCommand(this.tree.line(this.tree.firstLine(child)));
+                        break;
+                    // in case of a new scope creation
+                    case METHOD:
+                    case CONDITION:
+                    case BLOCK:
+                        scopeCreation(child);
+                        break;
+                    // in case of a closing bracket without an opening one
+                    case UNMATCHED_CLOSE:
+                        throw new BadBracketsStructure(this.name, this.tree.firstLine(child), false);
+                    // in case of invalid line syntax
+                    default:
+                        throw new InvalidSyntax(this.tree.line(this.tree.firstLine(child)));
+                }
+            } catch (ScopeError | MethodError | VariableError e) {
+                // an error of an inner scope's line already has its line
+                e.setLine(this.tree.firstLine(child));
+                // a run which collects several errors goes on from the next statement or scope
+                if (!this.context.collect(e)) throw e;
             }
         }
     }
 
     /**
-     * This method helps to determine whether the scanned line creates a new
+     * Checks the brackets of a file before its scopes are scanned, from the scopes the
+     * parser matched: a scope which is never closed swallows the rest of the file (and the
+     * global variables declared in it), so its error is reported before any error which its
+     * swallowed lines may cause. A bracket error is reported as the global scan reports it.
+     *
+     * @param tree The intermediate representation of the file (or of its part which was
+     *             read so far, see Verifier.verifyStreaming).
+     * @throws BadBracketsStructure If a scope is never closed, or a closing bracket closes nothing.
+     */
+    static void checkBrackets(SjavaTree tree) throws BadBracketsStructure {
+        for (int child = tree.firstChild(SjavaTree.ROOT); child != SjavaTree.NONE; child = tree.nextSibling(child)) {
+            SjavaTree.NodeKind kind = tree.kind(child);
+            if (kind == SjavaTree.NodeKind.UNMATCHED_CLOSE)
+                throw new BadBracketsStructure(GLOBAL_SCOPE_NAME, tree.firstLine(child), false);
+            // only the last inner node of the global scope may be a scope which is still open
+            if ((kind == SjavaTree.NodeKind.METHOD || kind == SjavaTree.NodeKind.CONDITION ||
+                    kind == SjavaTree.NodeKind.BLOCK) && tree.lastLine(child) == SjavaTree.NONE)
+                throw new BadBracketsStructure(GLOBAL_SCOPE_NAME, tree.firstLine(child), true);
+        }
+    }
+
+    /**
+     * This method helps to determine whether the scanned scope node is a new
      * method scope or a new if/while scope.
      *
-     * @param line    the scope's declaration line.
-     * @param lineNum the number of the first line in the new declared scope
-     *                (with respect to the original scope line counter).
-     * @return the new declared scope's size (the number of lines in it).
+     * @param scopeNode the new declared scope's node.
      * @throws ScopeError    If there is Scope error.
      * @throws MethodError   If there is Method error.
      * @throws VariableError If there is Variable error.
      */
-    private int scopeCreation(String line, int lineNum) throws ScopeError, MethodError, VariableError {
-        Pattern pattern1 = Pattern.compile(REGEX_CONDITION);
-        Pattern pattern2 = Pattern.compile(REGEX_METHOD);
-
-        // without the "{"
-        String substringLine = line.substring(ZERO, line.length() - ONE);
-
-        Matcher matcher1 = pattern1.matcher(substringLine);
-        Matcher matcher2 = pattern2.matcher(substringLine);
-
-        // if/while statement
-        if (matcher1.find()) {
-            return scopeCreationAUX(lineNum, TYPE_IF_OR_WHILE, line);
+    private void scopeCreation(int scopeNode) throws ScopeError, MethodError, VariableError {
+        switch (this.tree.kind(scopeNode)) {
+            // if/while statement
+            case CONDITION:
+                scopeCreationAUX(scopeNode, TYPE_IF_OR_WHILE,
+                        this.tree.line(this.tree.firstLine(scopeNode)));
+                break;
+            // a method declaration statement
+            case METHOD:
+                String methodType = this.tree.typeName(scopeNode), methodName = this.tree.name(scopeNode);
+                if (methodType.equals(METHOD_TYPE_VOID)) {
+                    if (this.outerScope != null) throw new InvalidMethodCreation(methodName);
+                    else scopeCreationAUX(scopeNode, TYPE_METHOD, methodName);
+                } else throw new BadMethodType(methodType);
+                break;
+            // in case the line ends with "{" but no void/if/while with a valid s-java declaration
+            default:
+                throw new InvalidScopeDeclaration();
         }
-        // a method declaration statement
-        else if (matcher2.find()) {
-            if (matcher2.group(ONE).equals(METHOD_TYPE_VOID)) {
-                if (this.outerScope != null) throw new InvalidMethodCreation(matcher2.group(THREE));
-                else return scopeCreationAUX(lineNum, TYPE_METHOD, matcher2.group(THREE));
-            } else throw new BadMethodType(matcher2.group(ONE));
-        }
-        // in case the line ends with "{" but no void/if/while with a valid s-java declaration
-        else throw new InvalidScopeDeclaration();
     }
 
     /**
      * this method 'creates' a new Method or Scondition Class, corresponding
      * to the given type.
      *
-     * @param lineNum the number of the first line in this new declared scope
-     *                (with respect to the original scope line counter).
-     * @param type    "method" or "ifWhile" - to determine the new Class's identity.
-     * @param name    the scope's name.
-     * @return the new scope's size (the number of lines in it).
+     * @param scopeNode the new declared scope's node.
+     * @param type      "method" or "ifWhile" - to determine the new Class's identity.
+     * @param name      the scope's name.
      * @throws ScopeError    If there is Scope error.
      * @throws MethodError   If there is Method error.
      * @throws VariableError If there is Variable error.
      */
-    private int scopeCreationAUX(int lineNum, String type, String name)
+    private void scopeCreationAUX(int scopeNode, String type, String name)
             throws ScopeError, MethodError, VariableError {
-        int innerScopeSize = findInnerScopeSize(lineNum);
-        List<String> innerScopeData = new ArrayList<>();
-        // -1 for not including the closing bracket
-        for (int i = lineNum; i < innerScopeSize + lineNum - 1; i++) {
-            innerScopeData.add(this.rawData.get(i));
+        if (this.tree.lastLine(scopeNode) == SjavaTree.NONE)
+            throw new BadBracketsStructure(this.name, this.tree.firstLine(scopeNode), true);
+        if (type.equals(TYPE_METHOD) && this.context.pendingMethods != null) {
+            // a run which verifies its methods in parallel verifies them once the global scan is over
+            this.context.pendingMethods.add(scopeNode);
+            return;
         }
-        if (type.equals(TYPE_METHOD)) {
-            Method method = new Method(innerScopeData, this, name);
-            this.innerScopes.add(method);
-        } else {
-            if (callFromMethod()) {
-                Scondition scondition = new Scondition(innerScopeData, this, name);
-                this.innerScopes.add(scondition);
-            } else throw new ConditionDeclarationNotFromMethod();
+        ScopeEvent event = new ScopeEvent();
+        event.begin();
+        try {
+            if (type.equals(TYPE_METHOD)) {
+                if (this.context.stats != null) this.context.stats.begin(VerificationStats.Phase.METHODS);
+                try {
+                    this.innerScopes.add(new Method(this.tree, scopeNode, this, name));
+                } finally {
+                    // the scan may go on after an error of the method (see VerificationContext.collect)
+                    if (this.context.stats != null) this.context.stats.end();
+                }
+            } else {
+                if (callFromMethod()) {
+                    Scondition scondition = new Scondition(this.tree, scopeNode, this, name);
+                    this.innerScopes.add(scondition);
+                } else throw new ConditionDeclarationNotFromMethod();
+            }
+        } finally {
+            // a scope which failed is recorded too
+            if (event.shouldCommit()) {
+                event.name = name;
+                event.kind = type.equals(TYPE_METHOD) ? VerifierEvent.KIND_METHOD : VerifierEvent.KIND_CONDITION;
+                event.lineCount = this.tree.lastLine(scopeNode) - this.tree.firstLine(scopeNode) + ONE;
+                event.commit();
+            }
         }
-        return innerScopeSize;
     }
 
 
@@ -229,18 +280,37 @@ public class Scope {
             throws VariableError, InvalidCommand, InvalidMethodCall, InvalidSyntax {
         String trimmedLine = line.trim();
         trimmedLine = trimmedLine.substring(ZERO, trimmedLine.length() - ONE);
-        // New Variable declarations
-        if (possibleVariableDeclaration(trimmedLine)) declareNewVariables(trimmedLine);
+        this.lexer.tokenize(line);
+        LineRuleEvent event = new LineRuleEvent();
+        event.begin();
+        try {
+            // New Variable declarations
+            if (possibleVariableDeclaration()) {
+                event.rule = LineRuleEvent.RULE_DECLARATION;
+                declareNewVariables(trimmedLine);
+            }
             // A Method call
-        else if (possibleMethodCall(line)) {
-            if (!callFromMethod()) throw new InvalidMethodCall(line);
-            MethodCallsChecker.addCall(line);
-        }
-        // A return statement
-        else if (isReturnLine(line)) {
+            else if (possibleMethodCall()) {
+                event.rule = LineRuleEvent.RULE_CALL;
+                if (!callFromMethod()) throw new InvalidMethodCall(line);
+                this.context.methodCalls.addCall(line);
+            }
+            // A return statement
+            else if (isReturnLine()) {
+                event.rule = LineRuleEvent.RULE_RETURN;
+            }
+            // A Variable assignments
+            else {
+                event.rule = LineRuleEvent.RULE_ASSIGNMENT;
+                assignExistingVariable(trimmedLine);
+            }
+        } finally {
+            // a line which failed its rule is recorded too
+            if (event.shouldCommit()) {
+                event.line = trimmedLine;
+                event.commit();
+            }
         }
-        // A Variable assignments
-        else assignExistingVariable(trimmedLine);
     }
 
     /**
@@ -258,44 +328,43 @@ public class Scope {
     }
 
     /**
-     * Checks if the given line is a valid s-Java return statement line.
+     * Checks if the last tokenized line is a valid s-Java return statement line
+     * ('return' followed only by ';').
      *
-     * @param line The line to be checked.
-     * @return True in case the given line is a valid s-Java return statement inside a method,
+     * @return True in case the line is a valid s-Java return statement inside a method,
      * false otherwise.
      */
-    private boolean isReturnLine(String line) {
-        Pattern pattern = Pattern.compile(REGEX_RETURN);
-        Matcher matcher = pattern.matcher(line);
-        return matcher.find() && callFromMethod();
+    private boolean isReturnLine() {
+        return this.lexer.count() == TWO && this.lexer.isKeyword(ZERO, SjavaLexer.KEYWORD_RETURN) &&
+                this.lexer.isPunctuation(ONE, ';') && callFromMethod();
     }
 
     /**
-     * Checks if the method call is valid.
+     * Checks if the last tokenized line is a possible method call (a name, followed by
+     * arguments in parentheses and the ';' suffix).
      *
-     * @param line A String in which a method is to be called.
-     * @return True in case the line holds a valid s-Java method call, false otherwise.
+     * @return True in case the line holds a possible s-Java method call, false otherwise.
      */
-    private boolean possibleMethodCall(String line) {
-        Pattern pattern = Pattern.compile(REGEX_POSSIBLE_METHOD);
-        Matcher matcher = pattern.matcher(line.substring(ZERO, line.length() - ONE)); // removes the '}'
-        return matcher.find();
+    private boolean possibleMethodCall() {
+        int count = this.lexer.count();
+        return count > THREE && this.lexer.kind(ZERO) == SjavaLexer.TokenKind.IDENTIFIER &&
+                this.lexer.isPunctuation(ONE, '(') && this.lexer.isPunctuation(count - TWO, ')') &&
+                this.lexer.isPunctuation(count - ONE, ';');
     }
 
     /**
-     * Checks if the given line starts with one of the s-Java's reserved keywords,
-     * which indicates a new variable declaration.
+     * Checks if the last tokenized line starts with one of the s-Java's variable
+     * type keywords (or 'final'), which indicates a new variable declaration.
      *
-     * @param line The line to be checked.
      * @return True in case the line decodes for a variable declaration, false otherwise.
      */
-    private boolean possibleVariableDeclaration(String line) {
-        return (line.trim().startsWith(Variable.VARIABLE_FINAL) ||
-                line.trim().startsWith(Variable.VARIABLE_TYPE_INT) ||
-                line.trim().startsWith(Variable.VARIABLE_TYPE_DOUBLE) ||
-                line.trim().startsWith(Variable.VARIABLE_TYPE_STRING) ||
-                line.trim().startsWith(Variable.VARIABLE_TYPE_BOOLEAN) ||
-                line.trim().startsWith(Variable.VARIABLE_TYPE_CHAR));
+    private boolean possibleVariableDeclaration() {
+        return this.lexer.count() > ZERO && (this.lexer.isKeyword(ZERO, Variable.VARIABLE_FINAL) ||
+                this.lexer.isKeyword(ZERO, Variable.VARIABLE_TYPE_INT) ||
+                this.lexer.isKeyword(ZERO, Variable.VARIABLE_TYPE_DOUBLE) ||
+                this.lexer.isKeyword(ZERO, Variable.VARIABLE_TYPE_STRING) ||
+                this.lexer.isKeyword(ZERO, Variable.VARIABLE_TYPE_BOOLEAN) ||
+                this.lexer.isKeyword(ZERO, Variable.VARIABLE_TYPE_CHAR));
     }
 
     /**
@@ -306,28 +375,15 @@ public class Scope {
      * @throws InvalidCommand If there is an invalid command (not an assignment).
      */
     private void assignExistingVariable(String line) throws VariableError, InvalidCommand {
-        Pattern pattern = Pattern.compile(REGEX_POSSIBLE_ASSIGN);
         String[] assignmentsStr = line.split(REGEX_COMMA);
         for (String possibleAssignment : assignmentsStr) {
-            Matcher matcher = pattern.matcher(possibleAssignment);
+            Matcher matcher = SjavaPattern.POSSIBLE_ASSIGN.matcher(possibleAssignment);
             if (matcher.find()) {
-                Scope curScope = this;
-                while (curScope != null) {
-                    if (curScope.arguments.containsKey(matcher.group(ONE))) {
-                        curScope.arguments.get(matcher.group(ONE)).
-                                setData(matcher.group(TWO), false, this);
-                        return;
-                    }
-                    if (curScope.variables.containsKey(matcher.group(ONE))) {
-                        curScope.variables.get(matcher.group(ONE)).
-                                setData(matcher.group(TWO), false, this);
-                        return;
-                    }
-                    curScope = curScope.outerScope;
-                }
-                if (callFromMethod()) {
-                    GlobalVariablesChecker.addAssignment(possibleAssignment);
-                } else throw new VariableDoesNotExist(matcher.group(ONE));
+                String variableName = matcher.group(ONE), value = matcher.group(TWO);
+                Variable variable = this.context.symbols.resolve(variableName);
+                if (variable == null) throw new VariableDoesNotExist(variableName);
+                variable.setData(value, false, this);
+                return;
             } else throw new InvalidCommand(line);
         }
 
@@ -347,11 +403,8 @@ public class Scope {
             if (separatedWords[ZERO].equals(Variable.VARIABLE_FINAL)) configStr += separatedWords[ONE] +
                     REGEX_SINGLE_SPACE;
         }
-        try {
-            line = line.replaceFirst(configStr, Variable.VARIABLE_INIT_CONFIG);
-        } catch (PatternSyntaxException e) {
-            throw new BadVariableDeclaration(line, false);
-        }
+        // the configuration words are a prefix of the line, so no regex is needed to remove them
+        if (line.startsWith(configStr)) line = line.substring(configStr.length());
         if (line.endsWith(REGEX_COMMA)) throw new BadVariableDeclaration(line, false);
         String[] variablesStr = line.split(REGEX_COMMA);
         for (String variableStr : variablesStr) {
@@ -359,35 +412,31 @@ public class Scope {
             Variable variable = new Variable(configStr +
                     variableStr.trim(), false, this);
             this.variables.put(variable.getName(), variable);
+            if (this.context.stats != null) this.context.stats.countVariable();
         }
     }
 
     /**
-     * Finds the size of a scope (according to it's starting line number).
-     * by iteration, it scans for a new closing bracket to appear, to signify the end
-     * of the scope.
-     *
-     * @param lineNum the number of the first line in this new declared scope
-     *                (with respect to the original scope line counter).
-     * @return the size of the scope (the number of lines in it).
-     * @throws BadBracketsStructure If there is a bad brackets structure.
+     * Releases the symbols of this scope's variables and arguments, once the scope is exited,
+     * so the declarations they shadow are visible again.
      */
-    private int findInnerScopeSize(int lineNum) throws BadBracketsStructure {
-        int scopeSize = ONE;
-        int openBracketsNum = ONE;
-        int closedBracketsNum = ZERO;
-        while (lineNum < this.rawData.size() && ((openBracketsNum - closedBracketsNum) != 0)) {
-            lineNum++;
-            try {
-                if (this.rawData.get(lineNum).trim().endsWith(REGEX_OPEN_BRACKET)) openBracketsNum++;
-                if (this.rawData.get(lineNum).trim().equals(REGEX_CLOSED_BRACKET)) closedBracketsNum++;
-            } catch (IndexOutOfBoundsException e) {
-                throw new BadBracketsStructure(this.name);
-            }
-            scopeSize++;
+    void releaseSymbols() {
+        for (String name : this.arguments.keySet()) this.context.symbols.release(name, this);
+        for (String name : this.variables.keySet()) this.context.symbols.release(name, this);
+    }
+
+    /**
+     * Releases the inner scopes of this scope (and their variables), once they were
+     * verified. Only the method signatures are kept (by the verification context) for
+     * the final method calls check.
+     */
+    void releaseInnerScopes() {
+        for (Scope innerScope : this.innerScopes) {
+            innerScope.releaseInnerScopes();
+            // new empty collections do not hold on to the capacity of the old ones
+            innerScope.variables = new HashMap<>();
         }
-        if ((openBracketsNum - closedBracketsNum) != ZERO) throw new BadBracketsStructure(this.name);
-        return scopeSize;
+        this.innerScopes = new ArrayList<>();
     }
 
     /**
@@ -3,7 +3,7 @@ package oop.ex5.main;
 /**
  * a class of Scope errors exceptions.
  */
-public class ScopeError extends Exception {
+public class ScopeError extends SjavaError {
 
     /**
      * super constructor for a Scope Error
@@ -13,6 +13,16 @@ public class ScopeError extends Exception {
     public ScopeError(String errorMessage) {
         super(errorMessage);
     }
+
+    /**
+     * super constructor for a Scope Error with an error code.
+     *
+     * @param code      The error code.
+     * @param arguments The message arguments.
+     */
+    ScopeError(Code code, Object... arguments) {
+        super(code, arguments);
+    }
 }
 
 /**
@@ -23,7 +33,7 @@ class InvalidSyntax extends ScopeError {
      * The Error constructor.
      */
     public InvalidSyntax(String line) {
-        super("'" + line + "' has a s-Java syntax problem (missing ';' or '{').");
+        super(Code.INVALID_SYNTAX, line);
     }
 }
 
@@ -35,7 +45,7 @@ class InvalidCommand extends ScopeError {
      * The Error constructor.
      */
     public InvalidCommand(String line) {
-        super("'" + line + "' is an invalid s-Java command.");
+        super(Code.INVALID_COMMAND, line);
     }
 }
 
@@ -48,20 +58,25 @@ class InvalidScopeDeclaration extends ScopeError {
      * The Error constructor.
      */
     public InvalidScopeDeclaration() {
-        super("Invalid s-Java scope declaration.");
+        super(Code.INVALID_SCOPE_DECLARATION);
     }
 }
 
 /**
- * in case a scope is missing a closing bracket.
+ * in case a scope is missing a closing bracket, or a closing bracket has no scope to close.
  */
 class BadBracketsStructure extends ScopeError {
     /**
      * The Error constructor.
+     *
+     * @param scopeName The name of the scope in which the bad bracket appears.
+     * @param lineNum   The (zero based) number of the line of the bad bracket.
+     * @param isOpening True if the bad bracket is an opening bracket which is never
+     *                  closed, false if it is a closing bracket which closes nothing.
      */
-    public BadBracketsStructure(String scopeName) {
-        super("Invalid brackets structure in scope " +
-                "'" + scopeName + "'.");
+    public BadBracketsStructure(String scopeName, int lineNum, boolean isOpening) {
+        super(isOpening ? Code.UNCLOSED_BRACKET : Code.UNMATCHED_BRACKET, scopeName, lineNum + 1);
+        setLine(lineNum);
     }
 }
 
@@ -73,7 +88,7 @@ class InvalidConditionException extends ScopeError {
      * The Error constructor.
      */
     public InvalidConditionException(String condition) {
-        super("'" + condition + "' is an invalid If/While s-Java condition.");
+        super(Code.INVALID_CONDITION, condition);
     }
 }
 
@@ -85,7 +100,7 @@ class MissingCondition extends ScopeError {
      * The Error constructor.
      */
     public MissingCondition() {
-        super("The If/While s-Java condition is missing.");
+        super(Code.MISSING_CONDITION);
     }
 }
 
@@ -97,7 +112,7 @@ class EmptyCondition extends ScopeError {
      * The Error constructor.
      */
     public EmptyCondition() {
-        super("There is an empty condition in the code.");
+        super(Code.EMPTY_CONDITION);
     }
 }
 
@@ -109,6 +124,6 @@ class ConditionDeclarationNotFromMethod extends ScopeError {
      * The Error constructor.
      */
     public ConditionDeclarationNotFromMethod() {
-        super("Condition Scope cannot be declared from the global Scope.");
+        super(Code.CONDITION_DECLARATION_NOT_FROM_METHOD);
     }
 }
\ No newline at end of file
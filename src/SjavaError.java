@@ -0,0 +1,179 @@
+package oop.ex5.main;
+
+import java.util.Locale;
+
+/**
+ * The base of the verifier's diagnostics (the Variable, Scope and Method errors).
+ * Most verifications of an illegal source end in an error, so the errors are cheap: they
+ * capture no stack trace (their code, arguments and line locate them), and their message
+ * is formatted from the code's template only when it is first requested.
+ */
+public abstract class SjavaError extends Exception {
+
+    /**
+     * The line number of an error whose line is unknown.
+     */
+    public final static int NO_LINE = -1;
+
+    /**
+     * The error codes, each with the template of its message.
+     */
+    public enum Code {
+        // variable errors
+        BAD_VARIABLE_DECLARATION("'%s' is not a valid %s declaration."),
+        BAD_VARIABLE_NAME_DIGIT("'%s' is an invalid Variable Name, Can't start with a digit."),
+        BAD_VARIABLE_NAME_UNDERSCORE("'%s' is an invalid Variable Name, can't be only an underscore."),
+        BAD_VARIABLE_NAME_ILLEGAL("'%s' is an invalid Variable Name, contains illegal characters."),
+        BAD_VARIABLE_NAME_SAVED_KEYWORD("'%s' is an invalid Variable Name, This name is a saved keyword."),
+        BAD_VARIABLE_NAME_ALREADY_EXISTS("'Variable '%s' is already defined in the scope."),
+        BAD_VARIABLE_TYPE("%s is an invalid Variable type."),
+        BAD_VARIABLE_DATA("%s is an invalid value for a %s variable."),
+        ILLEGAL_FINAL_DATA_CHANGE("Cannot assign a value to final variable '%s'."),
+        ILLEGAL_VARIABLE_CASTING("Cannot assign a %s member to a %s variable."),
+        VARIABLE_DOES_NOT_EXIST("Cannot resolve symbol '%s'."),
+        INVALID_VARIABLE_ASSIGNMENT("%s is not a valid assignment."),
+        UNINITIALIZED_PARAMETER("%s is not initialized."),
+        VARIABLE_INIT_IN_METHOD_DECLARATION("%s can not be initialized in a method declaration."),
+        UNINITIALIZED_VARIABLE("%s is uninitialized."),
+        UNINITIALIZED_FINAL_VARIABLE("Final %s is uninitialized."),
+        SELF_ASSIGN("Variable '%s' might not have been initialized."),
+        // scope errors
+        INVALID_SYNTAX("'%s' has a s-Java syntax problem (missing ';' or '{')."),
+        INVALID_COMMAND("'%s' is an invalid s-Java command."),
+        INVALID_SCOPE_DECLARATION("Invalid s-Java scope declaration."),
+        UNCLOSED_BRACKET("Invalid brackets structure in scope '%s': the '{' in line %d is never closed."),
+        UNMATCHED_BRACKET("Invalid brackets structure in scope '%s': the '}' in line %d closes no scope."),
+        INVALID_CONDITION("'%s' is an invalid If/While s-Java condition."),
+        MISSING_CONDITION("The If/While s-Java condition is missing."),
+        EMPTY_CONDITION("There is an empty condition in the code."),
+        CONDITION_DECLARATION_NOT_FROM_METHOD("Condition Scope cannot be declared from the global Scope."),
+        // method errors
+        BAD_METHOD_NAME_DIGIT("'%s' is an invalid Method Name, can't start with a digit."),
+        BAD_METHOD_NAME_UNDERSCORE("'%s' is an invalid Method Name, can't start with an underscore."),
+        BAD_METHOD_NAME_ILLEGAL("'%s' is an invalid Method Name, contains illegal characters."),
+        BAD_METHOD_NAME_SAVED_KEYWORD("'%s' is an invalid Method Name, This name is a saved keyword."),
+        BAD_METHOD_NAME_ALREADY_EXISTS("'Method '%s' is already defined."),
+        BAD_METHOD_TYPE("%s is not a valid Method type, Sjava supports only void methods."),
+        METHOD_DOES_NOT_EXIST("Cannot resolve symbol '%s'."),
+        MISSING_RETURN_STATEMENT("Missing return statement in '%s' method."),
+        BAD_ARGUMENTS_NUM("Actual and formal argument lists of method '%s' differ in length."),
+        INVALID_METHOD_CREATION("'%s' can not be declared inside another Method."),
+        INVALID_METHOD_CALL("'%s' can not be called from the global scope.");
+
+        /**
+         * The template of the code's message.
+         */
+        private final String template;
+
+        /**
+         * The enum constructor.
+         *
+         * @param template The template of the code's message.
+         */
+        Code(String template) {
+            this.template = template;
+        }
+
+        /**
+         * Formats the code's message.
+         *
+         * @param arguments The message arguments.
+         * @return The message.
+         */
+        String format(Object... arguments) {
+            return arguments.length == 0 ? this.template : String.format(Locale.ROOT, this.template, arguments);
+        }
+    }
+
+    /**
+     * The error code (null for an error which was created with a ready message).
+     */
+    private final Code code;
+
+    /**
+     * The message arguments.
+     */
+    private final Object[] arguments;
+
+    /**
+     * The message, once it is formatted.
+     */
+    private String message;
+
+    /**
+     * The (one based) number of the line of the error, or NO_LINE.
+     */
+    private int line = NO_LINE;
+
+    /**
+     * Constructs an error with a code.
+     *
+     * @param code      The error code.
+     * @param arguments The message arguments.
+     */
+    SjavaError(Code code, Object... arguments) {
+        super(null, null, false, false);
+        this.code = code;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Constructs an error with a ready message.
+     *
+     * @param errorMessage The error message.
+     */
+    SjavaError(String errorMessage) {
+        super(null, null, false, false);
+        this.code = null;
+        this.arguments = null;
+        this.message = errorMessage;
+    }
+
+    /**
+     * Gets the error code.
+     *
+     * @return The code, or null if the error was created with a ready message.
+     */
+    public Code getCode() {
+        return this.code;
+    }
+
+    /**
+     * Gets the message arguments.
+     *
+     * @return A copy of the arguments (empty if the error was created with a ready message).
+     */
+    public Object[] getArguments() {
+        return this.arguments == null ? new Object[0] : this.arguments.clone();
+    }
+
+    /**
+     * Gets the number of the line of the error.
+     *
+     * @return The (one based) line number, or NO_LINE if it is unknown.
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Sets the line of the error, unless it is already known (so the innermost scan which
+     * the error passes through sets it).
+     *
+     * @param lineNum The (zero based) number of the line, or NO_LINE.
+     */
+    void setLine(int lineNum) {
+        if (this.line == NO_LINE && lineNum != NO_LINE) this.line = lineNum + 1;
+    }
+
+    /**
+     * Gets the error message, which is formatted on the first request.
+     *
+     * @return The message.
+     */
+    @Override
+    public String getMessage() {
+        if (this.message == null) this.message = this.code.format(this.arguments);
+        return this.message;
+    }
+}
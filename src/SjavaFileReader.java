@@ -1,15 +1,12 @@
 package oop.ex5.main;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * This class 'reads' the given Sjava file, and extract it's content
- * into a list of String, in order to be able to process it easily.
+ * into a LineBuffer, in order to be able to process it easily.
+ * The file is memory-mapped (see MappedLineBuffer), so its lines are not copied
+ * into separate Strings while it is read.
  */
 public class SjavaFileReader {
 
@@ -19,62 +16,35 @@ public class SjavaFileReader {
     private final String sourceFilePath;
 
     /**
-     * A BufferedReader instance, used to read the file's content.
+     * The buffer which holds the file's content (each line in the .sjava file
+     * is a single line of the buffer).
      */
-    private BufferedReader bufferedReader = null;
-
-    /**
-     * A list of Strings, which holds the file's content (each line in
-     * the .sjava file is reserved in a single list cell).
-     */
-    private List<String> fileContent;
+    private LineBuffer fileContent;
 
     /**
      * The class's constructor.
      *
      * @param sourceFilePath The path to the sourceFile (the .sjava file).
-     * @throws FileNotFoundException In case the path to the file is invalid.
      */
-    SjavaFileReader(String sourceFilePath) throws FileNotFoundException {
+    SjavaFileReader(String sourceFilePath) {
         this.sourceFilePath = sourceFilePath;
-        openReader();
-    }
-
-    /**
-     * This method creates a new BufferedReader instance, and sets it as a class data member.
-     *
-     * @throws FileNotFoundException In case the path to the file is invalid.
-     */
-    public void openReader() throws FileNotFoundException {
-        BufferedReader reader;
-        // opening a reader with the given sourceFile path
-        reader = new BufferedReader(new FileReader(this.sourceFilePath));
-        this.bufferedReader = reader;
-
     }
 
     /**
-     * This method extracts data from the commands file into an array, line by line
-     * or in case of invalid section structure.
+     * This method maps the file into memory, and indexes its lines.
      *
-     * @throws IOException If failed to read one of the lines.
+     * @throws IOException In case the path to the file is invalid, or if failed to map the file.
      */
     public void readFile() throws IOException {
-        List<String> fileContent = new ArrayList<>();
-        String line = this.bufferedReader.readLine();
-        while (line != null) {
-            fileContent.add(line);
-            line = this.bufferedReader.readLine();
-        }
-        this.fileContent = fileContent;
+        this.fileContent = new MappedLineBuffer(this.sourceFilePath);
     }
 
     /**
      * A getter to the file content.
      *
-     * @return The list which holds the file content.
+     * @return The buffer which holds the file content.
      */
-    public List<String> getFileContent() {
+    public LineBuffer getFileContent() {
         return fileContent;
     }
 
@@ -0,0 +1,342 @@
+package oop.ex5.main;
+
+import java.util.Arrays;
+
+/**
+ * A hand-written s-Java tokenizer. Each line is walked exactly once, character by
+ * character, and broken into typed tokens (keywords, identifiers, literals and
+ * punctuation) which are identified by their offsets in the line.
+ * The tokens of the last tokenized line are kept in primitive arrays which are reused
+ * between lines, so tokenizing a line allocates nothing (unless the line has more
+ * tokens than any line before it).
+ */
+public class SjavaLexer {
+
+    /**
+     * The kind of a single token.
+     */
+    public enum TokenKind {
+        /**
+         * One of the s-Java reserved words (besides the boolean literals).
+         */
+        KEYWORD,
+
+        /**
+         * A variable or a method name.
+         */
+        IDENTIFIER,
+
+        /**
+         * A number, a String, a char or a boolean literal.
+         */
+        LITERAL,
+
+        /**
+         * Any other single character, or one of the '||' and '&&' operators.
+         */
+        PUNCTUATION
+    }
+
+    /**
+     * The kind of an entire code line.
+     */
+    public enum LineKind {
+        /**
+         * A line which contains only white spaces.
+         */
+        EMPTY,
+
+        /**
+         * A line which starts with '//'.
+         */
+        COMMENT,
+
+        /**
+         * A line which ends with ';'.
+         */
+        STATEMENT,
+
+        /**
+         * A line which ends with '{'.
+         */
+        BLOCK_OPEN,
+
+        /**
+         * A line which contains only '}'.
+         */
+        BLOCK_CLOSE,
+
+        /**
+         * Any other line.
+         */
+        INVALID
+    }
+
+    /**
+     * The s-Java reserved words which are not variable types.
+     */
+    public final static String KEYWORD_IF = "if", KEYWORD_WHILE = "while", KEYWORD_VOID = "void",
+            KEYWORD_RETURN = "return";
+
+    /**
+     * The s-Java reserved words which are tokenized as keywords.
+     */
+    private final static String[] KEYWORDS = {Variable.VARIABLE_TYPE_INT, Variable.VARIABLE_TYPE_DOUBLE,
+            Variable.VARIABLE_TYPE_STRING, Variable.VARIABLE_TYPE_CHAR, Variable.VARIABLE_TYPE_BOOLEAN,
+            Variable.VARIABLE_FINAL, KEYWORD_IF, KEYWORD_WHILE, KEYWORD_VOID, KEYWORD_RETURN};
+
+    /**
+     * The initial capacity of the token arrays.
+     */
+    private final static int INITIAL_CAPACITY = 16;
+
+    /**
+     * Special characters.
+     */
+    private final static char SPACE = ' ', SLASH = '/', SEMICOLON = ';', OPEN_BRACKET = '{',
+            CLOSED_BRACKET = '}', DOUBLE_QUOTE = '"', SINGLE_QUOTE = '\'', DOT = '.', PIPE = '|',
+            AMPERSAND = '&';
+
+    /**
+     * The kinds of the tokens.
+     */
+    private TokenKind[] kinds = new TokenKind[INITIAL_CAPACITY];
+
+    /**
+     * The start offsets (inclusive) of the tokens.
+     */
+    private int[] starts = new int[INITIAL_CAPACITY];
+
+    /**
+     * The end offsets (exclusive) of the tokens.
+     */
+    private int[] ends = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of tokens in the last tokenized line.
+     */
+    private int count;
+
+    /**
+     * The last tokenized line.
+     */
+    private CharSequence line;
+
+    /**
+     * Classifies the given line by its first and last non white space characters,
+     * without creating a trimmed copy of it.
+     *
+     * @param line The line to be classified.
+     * @return The kind of the line.
+     */
+    public static LineKind classify(CharSequence line) {
+        int length = line.length();
+        if (length > 1 && line.charAt(0) == SLASH && line.charAt(1) == SLASH) return LineKind.COMMENT;
+        int first = 0, last = length - 1;
+        while (first < length && isWhitespace(line.charAt(first))) first++;
+        if (first == length) return LineKind.EMPTY;
+        while (isWhitespace(line.charAt(last))) last--;
+        switch (line.charAt(last)) {
+            case SEMICOLON:
+                return LineKind.STATEMENT;
+            case OPEN_BRACKET:
+                return LineKind.BLOCK_OPEN;
+            case CLOSED_BRACKET:
+                return first == last ? LineKind.BLOCK_CLOSE : LineKind.INVALID;
+            default:
+                return LineKind.INVALID;
+        }
+    }
+
+    /**
+     * Breaks the given line into tokens, replacing the tokens of the previous line.
+     *
+     * @param line The line to be tokenized.
+     * @return The number of tokens in the line.
+     */
+    public int tokenize(CharSequence line) {
+        this.line = line;
+        this.count = 0;
+        int length = line.length(), index = 0;
+        while (index < length) {
+            char c = line.charAt(index);
+            int start = index;
+            if (isWhitespace(c)) {
+                index++;
+                continue;
+            }
+            if (isWordChar(c)) {
+                while (index < length && isWordChar(line.charAt(index))) index++;
+                if (Character.isDigit(c)) {
+                    // a decimal fraction is a part of the number literal
+                    if (index < length && line.charAt(index) == DOT) index++;
+                    while (index < length && isWordChar(line.charAt(index))) index++;
+                    addToken(TokenKind.LITERAL, start, index);
+                } else addToken(wordKind(line, start, index), start, index);
+            } else if (c == DOT && index + 1 < length && Character.isDigit(line.charAt(index + 1))) {
+                index++;
+                while (index < length && isWordChar(line.charAt(index))) index++;
+                addToken(TokenKind.LITERAL, start, index);
+            } else if (c == DOUBLE_QUOTE || c == SINGLE_QUOTE) {
+                index++;
+                while (index < length && line.charAt(index) != c) index++;
+                // an unterminated literal ends at the end of the line
+                if (index < length) index++;
+                addToken(TokenKind.LITERAL, start, index);
+            } else if ((c == PIPE || c == AMPERSAND) && index + 1 < length && line.charAt(index + 1) == c) {
+                index += 2;
+                addToken(TokenKind.PUNCTUATION, start, index);
+            } else {
+                index++;
+                addToken(TokenKind.PUNCTUATION, start, index);
+            }
+        }
+        return this.count;
+    }
+
+    /**
+     * Gets the number of tokens in the last tokenized line.
+     *
+     * @return The number of tokens.
+     */
+    public int count() {
+        return this.count;
+    }
+
+    /**
+     * Gets the kind of a token.
+     *
+     * @param token The index of the token.
+     * @return The kind of the token.
+     */
+    public TokenKind kind(int token) {
+        return this.kinds[token];
+    }
+
+    /**
+     * Gets the start offset of a token.
+     *
+     * @param token The index of the token.
+     * @return The offset of the first character of the token in the line.
+     */
+    public int start(int token) {
+        return this.starts[token];
+    }
+
+    /**
+     * Gets the end offset of a token.
+     *
+     * @param token The index of the token.
+     * @return The offset after the last character of the token in the line.
+     */
+    public int end(int token) {
+        return this.ends[token];
+    }
+
+    /**
+     * Gets the text of a token (only creates a String when it is needed).
+     *
+     * @param token The index of the token.
+     * @return The text of the token.
+     */
+    public String text(int token) {
+        return this.line.subSequence(this.starts[token], this.ends[token]).toString();
+    }
+
+    /**
+     * Checks if a token is the given single punctuation character.
+     *
+     * @param token       The index of the token.
+     * @param punctuation The punctuation character.
+     * @return True if the token is the given punctuation, false otherwise.
+     */
+    public boolean isPunctuation(int token, char punctuation) {
+        return this.kinds[token] == TokenKind.PUNCTUATION && this.ends[token] - this.starts[token] == 1 &&
+                this.line.charAt(this.starts[token]) == punctuation;
+    }
+
+    /**
+     * Checks if a token is the given keyword.
+     *
+     * @param token   The index of the token.
+     * @param keyword The keyword.
+     * @return True if the token is the given keyword, false otherwise.
+     */
+    public boolean isKeyword(int token, String keyword) {
+        return this.kinds[token] == TokenKind.KEYWORD && regionEquals(this.line, this.starts[token],
+                this.ends[token], keyword);
+    }
+
+    /**
+     * Adds a token to the token arrays, growing them if needed.
+     *
+     * @param kind  The kind of the token.
+     * @param start The start offset of the token.
+     * @param end   The end offset of the token.
+     */
+    private void addToken(TokenKind kind, int start, int end) {
+        if (this.count == this.kinds.length) {
+            this.kinds = Arrays.copyOf(this.kinds, this.count * 2);
+            this.starts = Arrays.copyOf(this.starts, this.count * 2);
+            this.ends = Arrays.copyOf(this.ends, this.count * 2);
+        }
+        this.kinds[this.count] = kind;
+        this.starts[this.count] = start;
+        this.ends[this.count] = end;
+        this.count++;
+    }
+
+    /**
+     * Decides whether a word is a keyword, a boolean literal or an identifier.
+     *
+     * @param line  The line of the word.
+     * @param start The start offset of the word.
+     * @param end   The end offset of the word.
+     * @return The kind of the word.
+     */
+    private static TokenKind wordKind(CharSequence line, int start, int end) {
+        if (regionEquals(line, start, end, Scondition.TRUE_VALUE) ||
+                regionEquals(line, start, end, Scondition.FALSE_VALUE)) return TokenKind.LITERAL;
+        for (String keyword : KEYWORDS) {
+            if (regionEquals(line, start, end, keyword)) return TokenKind.KEYWORD;
+        }
+        return TokenKind.IDENTIFIER;
+    }
+
+    /**
+     * Compares a region of a line to a word, without creating a String of the region.
+     *
+     * @param line  The line.
+     * @param start The start offset of the region.
+     * @param end   The end offset of the region.
+     * @param word  The word to be compared.
+     * @return True if the region equals to the word, false otherwise.
+     */
+    private static boolean regionEquals(CharSequence line, int start, int end, String word) {
+        if (end - start != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (line.charAt(start + i) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a character may be a part of a word (a name, a keyword or a number).
+     *
+     * @param c The character.
+     * @return True if the character is a letter, a digit or an underscore.
+     */
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * Checks if a character is a white space, the same way String.trim does.
+     *
+     * @param c The character.
+     * @return True if the character is a white space.
+     */
+    private static boolean isWhitespace(char c) {
+        return c <= SPACE;
+    }
+}
@@ -0,0 +1,161 @@
+package oop.ex5.main;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+
+/**
+ * A parser which builds the SjavaTree of an s-Java file in a single pass over its lines.
+ * Every opening bracket line is matched with its closing bracket line while the lines are
+ * read (with an explicit stack of the open scopes, so even very deeply nested files cannot
+ * overflow the call stack), and the matching lines are kept in the tree, so the extent of
+ * every scope is known in constant time.
+ * The parser only decodes the structure of the file (which line opens or closes which
+ * scope, and what kind of scope it is); the validity of the code lines is checked later
+ * by the scopes, over the tree.
+ */
+public class SjavaParser {
+
+    /**
+     * The value used in the regex group operation.
+     */
+    private final static int TYPE_GROUP = 1, NAME_GROUP = 3;
+
+    /**
+     * The initial capacity of the open scopes stack.
+     */
+    private final static int INITIAL_DEPTH = 16;
+
+    /**
+     * The file's code lines.
+     */
+    private final LineBuffer lines;
+
+    /**
+     * The tree being built.
+     */
+    private final SjavaTree tree;
+
+    /**
+     * The stack of the open scopes' outer scope nodes.
+     */
+    private int[] openScopes = new int[INITIAL_DEPTH];
+
+    /**
+     * The number of open scopes.
+     */
+    private int depth = 0;
+
+    /**
+     * The innermost open scope node.
+     */
+    private int scope = SjavaTree.ROOT;
+
+    /**
+     * The parser's constructor.
+     * A parser which is given the lines one by one (see parseLine) may be used over a
+     * buffer which is still being filled.
+     *
+     * @param lines The file's code lines.
+     */
+    SjavaParser(LineBuffer lines) {
+        this.lines = lines;
+        this.tree = new SjavaTree(lines);
+    }
+
+    /**
+     * Parses the given code lines into a tree.
+     *
+     * @param lines The file's code lines.
+     * @return The tree of the file.
+     */
+    public static SjavaTree parse(LineBuffer lines) {
+        SjavaParser parser = new SjavaParser(lines);
+        parser.parseLines();
+        return parser.tree;
+    }
+
+    /**
+     * Adds a node for every code line, as an inner node of the innermost open scope.
+     * Scopes which are still open at the end of the file are left without a last line.
+     */
+    private void parseLines() {
+        int linesNum = this.lines.size();
+        for (int lineNum = 0; lineNum < linesNum; lineNum++) parseLine(lineNum);
+    }
+
+    /**
+     * Adds the node of a single line (if it is a code line), as an inner node of the
+     * innermost open scope. The lines must be given in order.
+     *
+     * @param lineNum The line number.
+     */
+    void parseLine(int lineNum) {
+        // comment and empty lines are classified over the line's view, and never decoded
+        switch (SjavaLexer.classify(this.lines.view(lineNum))) {
+            case COMMENT:
+            case EMPTY:
+                break;
+            case STATEMENT:
+                this.tree.addNode(SjavaTree.NodeKind.STATEMENT, this.scope, lineNum);
+                break;
+            case BLOCK_OPEN:
+                if (this.depth == this.openScopes.length)
+                    this.openScopes = Arrays.copyOf(this.openScopes, this.depth * 2);
+                this.openScopes[this.depth++] = this.scope;
+                this.scope = parseDeclaration(this.scope, lineNum, this.lines.line(lineNum));
+                break;
+            case BLOCK_CLOSE:
+                // a closing bracket in the global scope closes nothing
+                if (this.depth == 0) {
+                    this.tree.addNode(SjavaTree.NodeKind.UNMATCHED_CLOSE, this.scope, lineNum);
+                } else {
+                    this.tree.setLastLine(this.scope, lineNum);
+                    this.scope = this.openScopes[--this.depth];
+                }
+                break;
+            default:
+                this.tree.addNode(SjavaTree.NodeKind.INVALID, this.scope, lineNum);
+        }
+    }
+
+    /**
+     * Checks if all the scopes opened so far were closed (so every node in the tree is complete).
+     *
+     * @return True if there is no open scope, false otherwise.
+     */
+    boolean isAtRoot() {
+        return this.depth == 0;
+    }
+
+    /**
+     * Gets the tree being built.
+     *
+     * @return The tree.
+     */
+    SjavaTree getTree() {
+        return this.tree;
+    }
+
+    /**
+     * Adds the node of a scope declaration line, according to the kind of the declaration.
+     *
+     * @param scope   The outer scope node.
+     * @param lineNum The declaration line number.
+     * @param line    The declaration line.
+     * @return The new scope node.
+     */
+    private int parseDeclaration(int scope, int lineNum, String line) {
+        // without the "{"
+        String declaration = line.substring(0, line.length() - 1);
+        if (SjavaPattern.SCOPE_CONDITION.find(declaration)) {
+            return this.tree.addNode(SjavaTree.NodeKind.CONDITION, scope, lineNum);
+        }
+        Matcher matcher = SjavaPattern.SCOPE_METHOD.matcher(declaration);
+        if (matcher.find()) {
+            int method = this.tree.addNode(SjavaTree.NodeKind.METHOD, scope, lineNum);
+            this.tree.setNames(method, matcher.group(NAME_GROUP), matcher.group(TYPE_GROUP));
+            return method;
+        }
+        return this.tree.addNode(SjavaTree.NodeKind.BLOCK, scope, lineNum);
+    }
+}
@@ -0,0 +1,141 @@
+package oop.ex5.main;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable registry of all the regular expressions used by the verifier.
+ * Each expression is compiled exactly once (when the class is loaded), and each
+ * thread reuses a single Matcher instance per expression, so no pattern is
+ * compiled and no Matcher is allocated while scanning the code lines.
+ * A Matcher returned by this registry is only valid until the next call to
+ * {@link #matcher(CharSequence)} of the same constant in the same thread, so its
+ * groups should be extracted before calling any other method which might use it.
+ */
+public enum SjavaPattern {
+
+    /**
+     * An if/while scope declaration line.
+     */
+    SCOPE_CONDITION("^\\s*(if|while)\\s*\\(.*\\)\\s*"),
+
+    /**
+     * A general method scope declaration line (of any return type).
+     */
+    SCOPE_METHOD("^\\s*(\\w+)(\\s+)(\\w+)\\s*\\(.*\\)\\s*"),
+
+    /**
+     * A possible method call line.
+     */
+    POSSIBLE_METHOD_CALL("^\\s*([a-zA-Z0-9_]+)\\s*(\\(.*\\))\\s*$"),
+
+    /**
+     * A possible assignment of an existing variable.
+     */
+    POSSIBLE_ASSIGN("^(\\S+)\\s*=\\s*(\\S+)$"),
+
+    /**
+     * A void method declaration line.
+     */
+    METHOD_DECLARATION("^\\s*void(\\s*)(\\w+)\\s*(\\(.*\\))\\s*"),
+
+    /**
+     * A return statement line (at the end of a method).
+     */
+    METHOD_RETURN("\\s*return\\s*;\\s*"),
+
+    /**
+     * An if/while declaration line, with the condition as the third group.
+     */
+    CONDITION_DECLARATION("^\\s*(if|while)(\\s*)*\\((.*)\\)\\s*"),
+
+    /**
+     * The OR / AND operators which separate multiple conditions.
+     */
+    CONDITION_SEPARATOR("\\|\\||\\&\\&"),
+
+    /**
+     * A fully initialized variable declaration (type, name and value).
+     */
+    VARIABLE_FULL_INIT("^(\\S+)\\s+(\\S+)\\s*=\\s*(.*)$"),
+
+    /**
+     * A declared but not initialized variable (type and name).
+     */
+    VARIABLE_HALF_INIT("^(\\S+)\\s+(\\S+)$"),
+
+    /**
+     * A name which starts with a digit.
+     */
+    NAME_DIGIT("^\\d"),
+
+    /**
+     * A name which is only a single underscore.
+     */
+    NAME_UNDERSCORE("^_$"),
+
+    /**
+     * A name which starts with an underscore.
+     */
+    NAME_STARTS_UNDERSCORE("^_"),
+
+    /**
+     * A name which contains illegal characters.
+     */
+    NAME_ILLEGAL("(?=\\D)(?=\\W)"),
+
+    /**
+     * A name which is one of the s-Java saved keywords.
+     */
+    NAME_SAVED_WORD("^(int|double|String|char|boolean|final|if|while|true|false|void|return)$");
+
+    /**
+     * The compiled pattern.
+     */
+    private final Pattern pattern;
+
+    /**
+     * A single reusable Matcher of the pattern per thread.
+     */
+    private final ThreadLocal<Matcher> matchers;
+
+    /**
+     * The constructor of the registry constant.
+     *
+     * @param regex The regular expression to be compiled.
+     */
+    SjavaPattern(String regex) {
+        this.pattern = Pattern.compile(regex);
+        this.matchers = ThreadLocal.withInitial(() -> this.pattern.matcher(Scope.REGEX_EMPTY));
+    }
+
+    /**
+     * Resets this thread's Matcher of the pattern with the given input.
+     *
+     * @param input The character sequence to be matched.
+     * @return The reset Matcher.
+     */
+    public Matcher matcher(CharSequence input) {
+        return this.matchers.get().reset(input);
+    }
+
+    /**
+     * Checks if the pattern can be found in the given input.
+     *
+     * @param input The character sequence to be matched.
+     * @return True if the pattern was found in the input, false otherwise.
+     */
+    public boolean find(CharSequence input) {
+        return matcher(input).find();
+    }
+
+    /**
+     * Splits the given input around the matches of the pattern.
+     *
+     * @param input The character sequence to be split.
+     * @return The array of Strings computed by splitting the input.
+     */
+    public String[] split(CharSequence input) {
+        return this.pattern.split(input);
+    }
+}
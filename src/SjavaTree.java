@@ -0,0 +1,358 @@
+package oop.ex5.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The intermediate representation of an s-Java file, built once by the SjavaParser.
+ * Every code line is a single node (comment and empty lines have no node), and every
+ * scope node (a method or an if/while block) is the parent of the nodes of its inner
+ * lines. The nodes are kept in a "struct of arrays" form - each property of the nodes
+ * is held in its own primitive array, indexed by the node number, and names are held
+ * only once in a names table and referred to by their id.
+ */
+public class SjavaTree {
+
+    /**
+     * The kind of a single node.
+     */
+    public enum NodeKind {
+        /**
+         * The root of the tree (the global scope).
+         */
+        PROGRAM,
+
+        /**
+         * A method declaration line, followed by the method's inner lines.
+         */
+        METHOD,
+
+        /**
+         * An if/while declaration line, followed by the block's inner lines.
+         */
+        CONDITION,
+
+        /**
+         * A line which ends with '{', but is neither a method nor an if/while declaration.
+         */
+        BLOCK,
+
+        /**
+         * A line which ends with ';'.
+         */
+        STATEMENT,
+
+        /**
+         * A closing bracket line without a matching opening line.
+         */
+        UNMATCHED_CLOSE,
+
+        /**
+         * Any other code line.
+         */
+        INVALID
+    }
+
+    /**
+     * The node number of the tree's root.
+     */
+    public final static int ROOT = 0;
+
+    /**
+     * A value used when there is no node, no line or no name.
+     */
+    public final static int NONE = -1;
+
+    /**
+     * The initial capacity of the node arrays.
+     */
+    private final static int INITIAL_CAPACITY = 64;
+
+    /**
+     * All the node kinds, by their ordinal number.
+     */
+    private final static NodeKind[] NODE_KINDS = NodeKind.values();
+
+    /**
+     * The file's code lines.
+     */
+    private final LineBuffer lines;
+
+    /**
+     * The kind of each node (the NodeKind ordinal number).
+     */
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+
+    /**
+     * The parent node of each node.
+     */
+    private int[] parents = new int[INITIAL_CAPACITY];
+
+    /**
+     * The first inner node of each node.
+     */
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+
+    /**
+     * The last inner node of each node.
+     */
+    private int[] lastChildren = new int[INITIAL_CAPACITY];
+
+    /**
+     * The next node (with the same parent) of each node.
+     */
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+
+    /**
+     * The name id of each node (the method name of a method declaration).
+     */
+    private int[] nameIds = new int[INITIAL_CAPACITY];
+
+    /**
+     * The type name id of each node (the return type of a method declaration).
+     */
+    private int[] typeIds = new int[INITIAL_CAPACITY];
+
+    /**
+     * The first line of each node.
+     */
+    private int[] firstLines = new int[INITIAL_CAPACITY];
+
+    /**
+     * The last line of each node (the closing bracket line of a scope node,
+     * or NONE if the scope is never closed).
+     */
+    private int[] lastLines = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of nodes in the tree.
+     */
+    private int nodeCount;
+
+    /**
+     * The names table, by the name id.
+     */
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * The id of each name in the names table.
+     */
+    private final HashMap<String, Integer> nameIndex = new HashMap<>();
+
+    /**
+     * The constructor of the tree, which only holds the root node.
+     *
+     * @param lines The file's code lines.
+     */
+    SjavaTree(LineBuffer lines) {
+        this.lines = lines;
+        addNode(NodeKind.PROGRAM, NONE, 0);
+        this.lastLines[ROOT] = lines.size() - 1;
+    }
+
+    /**
+     * Adds a new node as the last inner node of its parent.
+     *
+     * @param kind   The kind of the node.
+     * @param parent The parent node (NONE for the root).
+     * @param line   The first line of the node.
+     * @return The number of the new node.
+     */
+    int addNode(NodeKind kind, int parent, int line) {
+        if (this.nodeCount == this.kinds.length) grow();
+        int node = this.nodeCount++;
+        this.kinds[node] = (byte) kind.ordinal();
+        this.parents[node] = parent;
+        this.firstChildren[node] = NONE;
+        this.lastChildren[node] = NONE;
+        this.nextSiblings[node] = NONE;
+        this.nameIds[node] = NONE;
+        this.typeIds[node] = NONE;
+        this.firstLines[node] = line;
+        this.lastLines[node] = isScope(kind) ? NONE : line;
+        if (parent != NONE) {
+            if (this.lastChildren[parent] == NONE) this.firstChildren[parent] = node;
+            else this.nextSiblings[this.lastChildren[parent]] = node;
+            this.lastChildren[parent] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Checks if a node kind is a scope (which may have inner nodes).
+     *
+     * @param kind The node kind.
+     * @return True if nodes of this kind are scopes, false otherwise.
+     */
+    private static boolean isScope(NodeKind kind) {
+        return kind == NodeKind.PROGRAM || kind == NodeKind.METHOD || kind == NodeKind.CONDITION ||
+                kind == NodeKind.BLOCK;
+    }
+
+    /**
+     * Sets the names of a node.
+     *
+     * @param node The node number.
+     * @param name The name of the node.
+     * @param type The type name of the node.
+     */
+    void setNames(int node, String name, String type) {
+        this.nameIds[node] = nameId(name);
+        this.typeIds[node] = nameId(type);
+    }
+
+    /**
+     * Sets the last line of a scope node.
+     *
+     * @param node The node number.
+     * @param line The closing bracket line of the scope.
+     */
+    void setLastLine(int node, int line) {
+        this.lastLines[node] = line;
+    }
+
+    /**
+     * Removes all the nodes but the root (which is left without inner nodes), so the
+     * tree can be reused for the next lines of a streamed file.
+     */
+    void clear() {
+        this.nodeCount = ROOT + 1;
+        this.firstChildren[ROOT] = NONE;
+        this.lastChildren[ROOT] = NONE;
+        this.names.clear();
+        this.nameIndex.clear();
+    }
+
+    /**
+     * Gets the id of a name, adding it to the names table if needed.
+     *
+     * @param name The name.
+     * @return The id of the name.
+     */
+    private int nameId(String name) {
+        Integer id = this.nameIndex.get(name);
+        if (id == null) {
+            id = this.names.size();
+            this.names.add(name);
+            this.nameIndex.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * Doubles the capacity of all the node arrays.
+     */
+    private void grow() {
+        int capacity = this.kinds.length * 2;
+        this.kinds = Arrays.copyOf(this.kinds, capacity);
+        this.parents = Arrays.copyOf(this.parents, capacity);
+        this.firstChildren = Arrays.copyOf(this.firstChildren, capacity);
+        this.lastChildren = Arrays.copyOf(this.lastChildren, capacity);
+        this.nextSiblings = Arrays.copyOf(this.nextSiblings, capacity);
+        this.nameIds = Arrays.copyOf(this.nameIds, capacity);
+        this.typeIds = Arrays.copyOf(this.typeIds, capacity);
+        this.firstLines = Arrays.copyOf(this.firstLines, capacity);
+        this.lastLines = Arrays.copyOf(this.lastLines, capacity);
+    }
+
+    /**
+     * Gets the kind of a node.
+     *
+     * @param node The node number.
+     * @return The kind of the node.
+     */
+    public NodeKind kind(int node) {
+        return NODE_KINDS[this.kinds[node]];
+    }
+
+    /**
+     * Gets the parent of a node.
+     *
+     * @param node The node number.
+     * @return The parent node, or NONE for the root.
+     */
+    public int parent(int node) {
+        return this.parents[node];
+    }
+
+    /**
+     * Gets the first inner node of a node.
+     *
+     * @param node The node number.
+     * @return The first inner node, or NONE if there is none.
+     */
+    public int firstChild(int node) {
+        return this.firstChildren[node];
+    }
+
+    /**
+     * Gets the next node with the same parent.
+     *
+     * @param node The node number.
+     * @return The next node, or NONE if this is the last inner node of its parent.
+     */
+    public int nextSibling(int node) {
+        return this.nextSiblings[node];
+    }
+
+    /**
+     * Gets the name of a node.
+     *
+     * @param node The node number.
+     * @return The name of the node, or null if it has no name.
+     */
+    public String name(int node) {
+        return this.nameIds[node] == NONE ? null : this.names.get(this.nameIds[node]);
+    }
+
+    /**
+     * Gets the type name of a node.
+     *
+     * @param node The node number.
+     * @return The type name of the node, or null if it has no type name.
+     */
+    public String typeName(int node) {
+        return this.typeIds[node] == NONE ? null : this.names.get(this.typeIds[node]);
+    }
+
+    /**
+     * Gets the first line of a node.
+     *
+     * @param node The node number.
+     * @return The first line number.
+     */
+    public int firstLine(int node) {
+        return this.firstLines[node];
+    }
+
+    /**
+     * Gets the last line of a node.
+     *
+     * @param node The node number.
+     * @return The last line number, or NONE if the scope is never closed.
+     */
+    public int lastLine(int node) {
+        return this.lastLines[node];
+    }
+
+    /**
+     * Gets a code line.
+     *
+     * @param line The line number.
+     * @return The code line.
+     */
+    public String line(int line) {
+        return this.lines.line(line);
+    }
+
+    /**
+     * Gets the number of nodes in the tree.
+     *
+     * @return The number of nodes.
+     */
+    public int size() {
+        return this.nodeCount;
+    }
+}
@@ -1,13 +1,29 @@
 package oop.ex5.main;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import javax.management.JMException;
 
 /**
  * This class operates the entire Simplified Java Verifier program.
  * It contains the main method of the program, so by using the command
  * 'java oop.ex5.main.Sjavac source file name' (in the CMD), the
  * verifier will start running.
+ * Given several files, directories or glob patterns (or the '--jobs' option),
+ * the verifier runs in batch mode (see BatchVerifier), and given the '--daemon'
+ * option it runs as a long-running server (see VerifierDaemon). Given the '--stream'
+ * option, a single (possibly huge) file is verified while it is read, and given the
+ * '--parallel' option, the methods of a single file are verified in parallel. Any mode but
+ * the daemon may be preceded by the '--cache' and '--results' options (see MethodCache
+ * and ResultStore), and by the '--stats' option, which prints the time and counters of
+ * every verification phase (see VerificationStats). A single file may be verified with
+ * the '--errors' option, which reports all its errors (up to the given number) at once.
+ * Other programs should use the Verifier class directly.
  */
 public class Sjavac {
 
@@ -15,14 +31,30 @@ public class Sjavac {
      * Enum for the output type, no value field needed because it's redundant.
      * (we will use the 'ordinal()' method to get the numeric value.
      */
-    private enum OutputType {
+    public enum OutputType {
         LEGAL(), ILLEGAL(), IO_ERROR();
     }
 
+    /**
+     * The option which verifies a single file while it is read (see Verifier.verifyStreaming).
+     */
+    public final static String STREAM_OPTION = "--stream";
+
+    /**
+     * The option which verifies the methods of a single file in parallel (see Verifier.verifyParallel).
+     */
+    public final static String PARALLEL_OPTION = "--parallel";
+
+    /**
+     * The option which collects up to the given number of errors of a single file (see Verifier.verifyAll).
+     */
+    public final static String ERRORS_OPTION = "--errors";
+
     /**
      * Number of arguments needed.
      */
-    final static int ARGUMENTS_NUMBER = 1, ZERO = 0;
+    final static int ARGUMENTS_NUMBER = 1, ZERO = 0, ONE = 1, STREAM_ARGUMENTS_NUMBER = 2,
+            OPTION_ARGUMENTS_NUMBER = 2;
 
     /**
      * The main method of the program.
@@ -30,71 +62,175 @@ public class Sjavac {
      * @param args The arguments given in the command line in order to run the program.
      */
     public static void main(String[] args) {
+        MethodCache methodCache = null;
+        ResultStore resultStore = null;
+        VerificationStats stats = null;
+        int maxErrors = VerificationContext.STOP_AT_FIRST_ERROR;
         try {
-            if (args.length < ARGUMENTS_NUMBER)
-                throw new IllegalArgumentException("Missing s-Java file name.");
-            else if (args.length > ARGUMENTS_NUMBER)
-                throw new IllegalArgumentException("Too many arguments.");
-            List<String> fileContent = getSjavaLines(args[ZERO]);
-            Scope scope = new Scope(fileContent, null, "Global Scope");
-            scope.scan();
-            finalChecks();
+            // the cache and statistics options come before the arguments of any mode
+            while (args.length > ZERO && (args[ZERO].equals(MethodCache.CACHE_OPTION) ||
+                    args[ZERO].equals(ResultStore.RESULTS_OPTION) ||
+                    args[ZERO].equals(VerificationStats.STATS_OPTION) || args[ZERO].equals(ERRORS_OPTION))) {
+                if (args[ZERO].equals(VerificationStats.STATS_OPTION)) {
+                    if (stats == null) stats = createStats();
+                    args = Arrays.copyOfRange(args, ONE, args.length);
+                    continue;
+                }
+                if (args.length < OPTION_ARGUMENTS_NUMBER)
+                    throw new IllegalArgumentException("Missing " + args[ZERO] + " file.");
+                if (args[ZERO].equals(ERRORS_OPTION)) {
+                    maxErrors = parseMaxErrors(args[ONE]);
+                    args = Arrays.copyOfRange(args, OPTION_ARGUMENTS_NUMBER, args.length);
+                    continue;
+                }
+                Path path = Paths.get(args[ONE]);
+                if (args[ZERO].equals(MethodCache.CACHE_OPTION)) methodCache = MethodCache.load(path);
+                else {
+                    if (resultStore != null) resultStore.close();
+                    resultStore = new ResultStore(path);
+                }
+                args = Arrays.copyOfRange(args, OPTION_ARGUMENTS_NUMBER, args.length);
+            }
+            run(args, methodCache, resultStore, stats, maxErrors);
         } catch (IOException | IllegalArgumentException e) {
             System.out.println(OutputType.IO_ERROR.ordinal());
             System.err.println(e);
             return;
-        } catch (VariableError | ScopeError | MethodError e) {
-            System.out.println(OutputType.ILLEGAL.ordinal());
-            System.err.println(e);
-            return;
-
         } finally {
-            clearStaticCollections();
+            closeResultStore(resultStore);
+        }
+        if (stats != null) System.err.print(stats);
+        if (methodCache != null) {
+            try {
+                methodCache.save();
+            } catch (IOException e) {
+                // the results were already printed, so a cache which was not saved only costs time
+                System.err.println("Failed to save the method cache: " + e);
+            }
+        }
+    }
+
+    /**
+     * Runs the program in the mode the arguments ask for.
+     *
+     * @param args        The arguments given in the command line (without the cache options).
+     * @param methodCache The cache of verified method bodies (or null).
+     * @param resultStore The store of whole-file results (or null).
+     * @param stats       The statistics of the run (or null).
+     * @param maxErrors   The number of errors after which a single file's verification stops.
+     * @throws IOException              If the daemon's socket could not be opened.
+     * @throws IllegalArgumentException In case of invalid arguments.
+     */
+    private static void run(String[] args, MethodCache methodCache, ResultStore resultStore,
+                            VerificationStats stats, int maxErrors) throws IOException {
+        Verifier verifier = new Verifier(VerificationOptions.defaults().withMethodCache(methodCache)
+                .withResultStore(resultStore).withStats(stats));
+        if (args.length < ARGUMENTS_NUMBER)
+            throw new IllegalArgumentException("Missing s-Java file name.");
+        else if (maxErrors != VerificationContext.STOP_AT_FIRST_ERROR) {
+            if (args.length > ARGUMENTS_NUMBER || BatchVerifier.isBatchArgument(args[ZERO]) ||
+                    args[ZERO].equals(VerifierDaemon.DAEMON_OPTION) || args[ZERO].equals(STREAM_OPTION) ||
+                    args[ZERO].equals(PARALLEL_OPTION))
+                throw new IllegalArgumentException("The " + ERRORS_OPTION +
+                        " option is supported only for a single file.");
+            printResults(verifier.verifyAll(Paths.get(args[ZERO]), maxErrors));
+        } else if (args[ZERO].equals(VerifierDaemon.DAEMON_OPTION)) {
+            if (methodCache != null || resultStore != null)
+                throw new IllegalArgumentException("The cache options are not supported in daemon mode.");
+            // the daemon always exposes its statistics over JMX
+            if (stats != null)
+                throw new IllegalArgumentException("The " + VerificationStats.STATS_OPTION +
+                        " option is not supported in daemon mode.");
+            new VerifierDaemon(args).run();
+        } else if (args[ZERO].equals(STREAM_OPTION)) {
+            if (args.length != STREAM_ARGUMENTS_NUMBER)
+                throw new IllegalArgumentException("Usage: " + STREAM_OPTION + " <s-Java file>.");
+            printResult(verifier.verifyStreaming(Paths.get(args[ONE])));
+        } else if (args[ZERO].equals(PARALLEL_OPTION)) {
+            if (args.length != STREAM_ARGUMENTS_NUMBER)
+                throw new IllegalArgumentException("Usage: " + PARALLEL_OPTION + " <s-Java file>.");
+            printResult(verifier.verifyParallel(Paths.get(args[ONE])));
+        } else if (args.length > ARGUMENTS_NUMBER || BatchVerifier.isBatchArgument(args[ZERO])) {
+            new BatchVerifier(args, verifier).run(System.out);
+        } else printResult(verifier.verifyFilePath(args[ZERO]));
+    }
+
+    /**
+     * Parses the number of errors of the errors option.
+     *
+     * @param value The option's value.
+     * @return The number of errors (at least 1).
+     * @throws IllegalArgumentException If the value is not a positive number.
+     */
+    private static int parseMaxErrors(String value) {
+        try {
+            int maxErrors = Integer.parseInt(value);
+            if (maxErrors >= VerificationContext.STOP_AT_FIRST_ERROR) return maxErrors;
+        } catch (NumberFormatException e) {
+            // reported below, as any other invalid value
+        }
+        throw new IllegalArgumentException("Invalid " + ERRORS_OPTION + " number: " + value + ".");
+    }
+
+    /**
+     * Creates the statistics of the run, and registers them as an MBean (so a long batch
+     * run can be watched while it runs).
+     *
+     * @return The statistics.
+     */
+    private static VerificationStats createStats() {
+        VerificationStats stats = new VerificationStats();
+        try {
+            stats.register();
+        } catch (JMException e) {
+            // the statistics are still printed at the end of the run
+            System.err.println("Failed to register the statistics MBean: " + e);
         }
-        System.out.println(OutputType.LEGAL.ordinal());
+        return stats;
     }
 
     /**
-     * Gets the entire file lines in order.
+     * Closes the result store (if any). The results were already printed, so a store which
+     * was not closed properly only costs time.
      *
-     * @param filePath The source Sjava file path.
-     * @return List of all the lines of the file.
-     * @throws IOException If the file does not exist.
+     * @param resultStore The store of whole-file results (or null).
      */
-    private static List<String> getSjavaLines(String filePath)
-            throws IOException {
-        SjavaFileReader sjavaFileReader = new SjavaFileReader(filePath);
-        sjavaFileReader.readFile();
-        return sjavaFileReader.getFileContent();
+    private static void closeResultStore(ResultStore resultStore) {
+        if (resultStore == null) return;
+        try {
+            resultStore.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close the result store: " + e);
+        }
     }
 
     /**
-     * Clears the static collection members from all class.
+     * Prints the result of a single file: its output code, and its error (if any) to the error stream.
+     *
+     * @param result The result of the file's verification.
      */
-    private static void clearStaticCollections() {
-        Variable.existingVariables.clear();
-        Variable.existingArguments.clear();
-        Method.allMethods.clear();
-        MethodCallsChecker.calls.clear();
-        GlobalVariablesChecker.globalVariablesAssignments.clear();
-        GlobalVariablesChecker.globalVariablesDeclaration.clear();
-        GlobalVariablesChecker.globalVariablesCondition.clear();
-        Scope.globalScope = null;
+    private static void printResult(VerificationResult result) {
+        System.out.println(result.getCode());
+        if (result.getError() != null) System.err.println(result.getError());
     }
 
     /**
-     * Runs the final check for method call, and global assignments, declarations and conditions.
-     * Some methods and variables might be declared after their usage.
+     * Prints the result of a single file which collected several errors: its output code, and
+     * every error (with its line number, if known) to the error stream, by the lines' order.
      *
-     * @throws ScopeError    If there is Scope error.
-     * @throws MethodError   If there is Method error.
-     * @throws VariableError If there is Variable error.
+     * @param result The result of the file's verification.
      */
-    private static void finalChecks() throws ScopeError, MethodError, VariableError {
-        MethodCallsChecker.CheckCalls();
-        GlobalVariablesChecker.checkGlobalAssignments();
-        GlobalVariablesChecker.checkGlobalDeclaration();
-        GlobalVariablesChecker.checkGlobalCondition();
+    private static void printResults(VerificationResult result) {
+        System.out.println(result.getCode());
+        if (result.getOutputType() == OutputType.IO_ERROR) System.err.println(result.getError());
+        List<SjavaError> errors = new ArrayList<>(result.getErrors());
+        // the errors of the deferred call checks were met after the scan, and the errors without a line last
+        errors.sort(Comparator.comparingInt(error ->
+                error.getLine() == SjavaError.NO_LINE ? Integer.MAX_VALUE : error.getLine()));
+        for (SjavaError error : errors) {
+            if (error.getLine() == SjavaError.NO_LINE) System.err.println(error);
+            else System.err.println("line " + error.getLine() + ": " + error);
+        }
     }
 
 }
\ No newline at end of file
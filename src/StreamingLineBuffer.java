@@ -0,0 +1,84 @@
+package oop.ex5.main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A LineBuffer of a file which is read line by line. Only a window of the lines is
+ * held in memory - the lines which were added since the window was last discarded -
+ * but the lines keep their numbers in the entire file.
+ */
+public class StreamingLineBuffer implements LineBuffer {
+
+    /**
+     * The lines of the window.
+     */
+    private final List<String> window = new ArrayList<>();
+
+    /**
+     * The number of the window's first line.
+     */
+    private int base = 0;
+
+    /**
+     * Adds the next line of the file to the window.
+     *
+     * @param line The line.
+     * @return The line number.
+     */
+    int add(String line) {
+        this.window.add(line);
+        return size() - 1;
+    }
+
+    /**
+     * Discards all the lines of the window.
+     */
+    void discard() {
+        this.base += this.window.size();
+        this.window.clear();
+    }
+
+    /**
+     * Gets the number of lines in the window.
+     *
+     * @return The number of lines.
+     */
+    int windowSize() {
+        return this.window.size();
+    }
+
+    /**
+     * Gets the number of lines read so far.
+     *
+     * @return The number of lines.
+     */
+    @Override
+    public int size() {
+        return this.base + this.window.size();
+    }
+
+    /**
+     * Gets a single line of the window.
+     *
+     * @param lineNum The (zero based) line number, in the entire file.
+     * @return The line.
+     * @throws IndexOutOfBoundsException If the line is not in the window.
+     */
+    @Override
+    public String line(int lineNum) {
+        return this.window.get(lineNum - this.base);
+    }
+
+    /**
+     * Gets a read-only view of a single line of the window (the line itself).
+     *
+     * @param lineNum The (zero based) line number, in the entire file.
+     * @return The line.
+     * @throws IndexOutOfBoundsException If the line is not in the window.
+     */
+    @Override
+    public CharSequence view(int lineNum) {
+        return line(lineNum);
+    }
+}
@@ -0,0 +1,56 @@
+package oop.ex5.main;
+
+import java.util.List;
+
+/**
+ * A LineBuffer of lines which are already held in memory as Strings.
+ */
+public class StringLineBuffer implements LineBuffer {
+
+    /**
+     * The lines.
+     */
+    private final String[] lines;
+
+    /**
+     * The class's constructor. Only the references to the lines are copied, so later
+     * changes to the given list do not change the buffer.
+     *
+     * @param lines The lines.
+     */
+    public StringLineBuffer(List<String> lines) {
+        this.lines = lines.toArray(new String[0]);
+    }
+
+    /**
+     * Gets the number of lines in the buffer.
+     *
+     * @return The number of lines.
+     */
+    @Override
+    public int size() {
+        return this.lines.length;
+    }
+
+    /**
+     * Gets a single line.
+     *
+     * @param lineNum The (zero based) line number.
+     * @return The line.
+     */
+    @Override
+    public String line(int lineNum) {
+        return this.lines[lineNum];
+    }
+
+    /**
+     * Gets a read-only view of a single line (the line itself, which is already in memory).
+     *
+     * @param lineNum The (zero based) line number.
+     * @return The line.
+     */
+    @Override
+    public CharSequence view(int lineNum) {
+        return this.lines[lineNum];
+    }
+}
@@ -0,0 +1,171 @@
+package oop.ex5.main;
+
+import java.util.HashMap;
+
+/**
+ * The variables and method arguments which are visible at the point a verification run
+ * has reached. Every name has a stack of bindings: a declaration pushes a binding of its
+ * scope, and the exit of a scope pops the bindings of all the names it declared, so a
+ * name always resolves (in constant time, whatever the nesting depth) to its innermost
+ * visible declaration, and a shadowed declaration is visible again once the shadowing
+ * scope is exited.
+ * A method may refer to a global variable which is declared after it: while a method is
+ * scanned, a name without a binding resolves to a copy of the global variable of the run's
+ * pre-pass (see GlobalIndex), which the method shares for all its references to the name.
+ * The table of a method which is verified apart from the rest of its file holds only the
+ * method's own symbols, and resolves any other name to a global variable, as it was at the
+ * method's declaration (see ParallelVerifier).
+ */
+public class SymbolTable {
+
+    /**
+     * A single binding of a name, which links to the binding it shadows.
+     */
+    private static class Binding {
+
+        /**
+         * The bound variable (or argument).
+         */
+        private final Variable variable;
+
+        /**
+         * The binding which this binding shadows (null if there is none).
+         */
+        private final Binding shadowed;
+
+        /**
+         * The class's constructor.
+         *
+         * @param variable The bound variable.
+         * @param shadowed The binding which this binding shadows (or null).
+         */
+        Binding(Variable variable, Binding shadowed) {
+            this.variable = variable;
+            this.shadowed = shadowed;
+        }
+    }
+
+    /**
+     * The innermost binding of every visible name.
+     */
+    private final HashMap<String, Binding> bindings = new HashMap<>();
+
+    /**
+     * The global variables which are visible to a method that is verified apart from the
+     * rest of its file, or null.
+     */
+    private final ParallelVerifier.GlobalsView globals;
+
+    /**
+     * The global variables which the run's pre-pass indexed, or null.
+     */
+    private GlobalIndex index;
+
+    /**
+     * The method which is scanned, or null while the global scope is scanned.
+     */
+    private Scope method;
+
+    /**
+     * The copies of the indexed global variables which the scanned method referred to
+     * before their declaration, by their names.
+     */
+    private final HashMap<String, Variable> hoisted = new HashMap<>();
+
+    /**
+     * Creates the table of a run.
+     */
+    SymbolTable() {
+        this(null);
+    }
+
+    /**
+     * Creates the table of a method which is verified apart from the rest of its file.
+     *
+     * @param globals The global variables which are visible to the method (or null).
+     */
+    SymbolTable(ParallelVerifier.GlobalsView globals) {
+        this.globals = globals;
+    }
+
+    /**
+     * Binds a declared variable (or argument) to its name, in its declared scope.
+     *
+     * @param variable The variable.
+     */
+    void bind(Variable variable) {
+        this.bindings.put(variable.getName(), new Binding(variable, this.bindings.get(variable.getName())));
+    }
+
+    /**
+     * Resolves a name to its innermost visible variable (or argument).
+     *
+     * @param name The name.
+     * @return The variable, or null if there is no visible variable of this name.
+     */
+    Variable resolve(String name) {
+        Binding binding = this.bindings.get(name);
+        if (binding != null) return binding.variable;
+        if (this.globals != null) return this.globals.get(name);
+        return hoisted(name);
+    }
+
+    /**
+     * Resolves a name to a global variable which is declared after the scanned method.
+     *
+     * @param name The name.
+     * @return The method's copy of the indexed variable, or null if there is no such
+     * variable (or no method is scanned).
+     */
+    Variable hoisted(String name) {
+        if (this.method == null || this.index == null) return null;
+        Variable copy = this.hoisted.get(name);
+        if (copy != null) return copy;
+        Variable global = this.index.get(name);
+        if (global == null) return null;
+        // only the global scope's own initializations are indexed
+        Scope globalScope = this.method.context.globalScope;
+        copy = new Variable(global, globalScope, global.isInitialized() ? globalScope : null);
+        this.hoisted.put(name, copy);
+        return copy;
+    }
+
+    /**
+     * Sets the global variables which the run's pre-pass indexed.
+     *
+     * @param index The index (or null).
+     */
+    void hoist(GlobalIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Starts the scan of a method.
+     *
+     * @param method The method.
+     */
+    void enterMethod(Scope method) {
+        this.method = method;
+    }
+
+    /**
+     * Ends the scan of a method, dropping its copies of the indexed global variables.
+     */
+    void exitMethod() {
+        this.method = null;
+        this.hoisted.clear();
+    }
+
+    /**
+     * Pops the binding of a name, if it is the binding of the given scope.
+     *
+     * @param name  The name.
+     * @param scope The scope which is exited.
+     */
+    void release(String name, Scope scope) {
+        Binding binding = this.bindings.get(name);
+        if (binding == null || binding.variable.declaredScope != scope) return;
+        if (binding.shadowed == null) this.bindings.remove(name);
+        else this.bindings.put(name, binding.shadowed);
+    }
+}
@@ -2,7 +2,6 @@ package oop.ex5.main;
 
 import java.util.HashMap;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * The Variable class.
@@ -22,82 +21,72 @@ public class Variable {
     private final static int ONE = 1, TWO = 2, THREE = 3;
 
     /**
-     * Regex for finding full Initialized variable or just declared variable.
-     */
-    private final static String REGEX_FULL_INIT = "^(\\S+)\\s+(\\S+)\\s*=\\s*(.*)$",
-            REGEX_HALF_INIT = "^(\\S+)\\s+(\\S+)$";
-
-    /**
-     * Regex of all possible saved keywords.
-     */
-    public final static String SAVED_WORDS =
-            "^(int|double|String|char|boolean|final|if|while|true|false|void|return)$";
-
-    /**
-     * Short regex expression.
-     */
-    public final static String REGEX_DIGIT_WORDS = "(?=\\D)(?=\\W)", REGEX_DIGIT = "^\\d",
-            REGEX_UNDERSCORE = "^_$", REGEX_STARTS_UNDERSCORE = "^_";
-
-    /**
-     * All the current existing variables n the program sorted in a HashMap (name, Variable objects).
-     */
-    public static HashMap<String, Variable> existingVariables = new HashMap<>();
-
-    /**
-     * All the current existing arguments in the program sorted in a HashMap (name, Variable objects).
-     */
-    public static HashMap<String, Variable> existingArguments = new HashMap<>();
-
-    /**
-     * A Type Enum.
+     * A Type Enum. Every type is a single bit (the same bit as of its literals, see
+     * LiteralClassifier), and holds the bits of the types which may be assigned to it, so
+     * every type check is a single bitwise test.
      */
     private enum Type {
         /**
          * An int type.
          */
-        INT("^int$", "^(-\\d+)$|^(\\d+)$"),
+        INT(VARIABLE_TYPE_INT, LiteralClassifier.INT, LiteralClassifier.INT),
 
         /**
-         * A double type.
+         * A double type (an int may be assigned to a double).
          */
-        DOUBLE("^double$", "^-(\\d*\\.\\d+)$|^-(\\d+\\.\\d*)$|^(\\d*\\.\\d+)$|" +
-                "^(\\d+\\.\\d*)$|^(-\\d+)$|^(\\d+)$"),
+        DOUBLE(VARIABLE_TYPE_DOUBLE, LiteralClassifier.DOUBLE, LiteralClassifier.DOUBLE | LiteralClassifier.INT),
 
         /**
          * a String type.
          */
-        STRING("^String$", "^\"(.*)\"$"),
+        STRING(VARIABLE_TYPE_STRING, LiteralClassifier.STRING, LiteralClassifier.STRING),
 
         /**
          * A char type.
          */
-        CHAR("^char$", "^'(.)'$"),
+        CHAR(VARIABLE_TYPE_CHAR, LiteralClassifier.CHAR, LiteralClassifier.CHAR),
 
         /**
-         * A boolean type.
+         * A boolean type (an int or a double may be assigned to a boolean).
          */
-        BOOLEAN("^boolean$", "^true$|^false$|^-(\\d*\\.\\d+)$|^-(\\d+\\.\\d*)$|" +
-                "^(\\d*\\.\\d+)$|^(\\d+\\.\\d*)$|^(-\\d+)$|^(\\d+)$");
+        BOOLEAN(VARIABLE_TYPE_BOOLEAN, LiteralClassifier.BOOLEAN,
+                LiteralClassifier.BOOLEAN | LiteralClassifier.INT | LiteralClassifier.DOUBLE);
 
         /**
-         * Type regular expression for finding the Variable type,
-         * and a value regular expression for finding the value.
+         * The type's keyword.
          */
-        Pattern typePattern, valuePattern;
+        final String keyword;
+
+        /**
+         * The type's bit.
+         */
+        final int bit;
+
+        /**
+         * The bits of the types which may be assigned to this type (its row in the
+         * assignability matrix).
+         */
+        final int assignableFrom;
 
         /**
          * the Constructor of the Type.
          *
-         * @param regexType  Regular expression for finding the Variable type.
-         * @param regexValue Regular expression for finding the value of the variable.
+         * @param keyword        The type's keyword.
+         * @param bit            The type's bit.
+         * @param assignableFrom The bits of the types which may be assigned to this type.
          */
-        Type(String regexType, String regexValue) {
-            this.typePattern = Pattern.compile(regexType);
-            this.valuePattern = Pattern.compile(regexValue);
+        Type(String keyword, int bit, int assignableFrom) {
+            this.keyword = keyword;
+            this.bit = bit;
+            this.assignableFrom = assignableFrom;
         }
     }
 
+    /**
+     * The types, by their keywords.
+     */
+    private final static HashMap<String, Type> TYPES = typesByKeyword();
+
 
     /**
      * A generic Data class for Variable.
@@ -156,6 +145,12 @@ public class Variable {
      */
     public Scope initializedScope = null;
 
+    /**
+     * The (zero based) numbers of the lines which were scanned when the variable was
+     * declared, and when it was first initialized (or SjavaError.NO_LINE).
+     */
+    int declaredLine, initializedLine = SjavaError.NO_LINE;
+
     /**
      * A boolean representing if the variable is initialized.
      */
@@ -183,10 +178,52 @@ public class Variable {
         this.declaredScope = declaredScope;
         this.isArgument = isArgument;
         this.isFinal = initializeLine.startsWith(VARIABLE_FINAL);
-        updateParameters(isFinal ? initializeLine.replaceFirst(VARIABLE_FINAL, Scope.REGEX_EMPTY)
-                : initializeLine);
-        if (this.isArgument) existingArguments.put(this.name, this);
-        else existingVariables.put(this.name, this);
+        this.declaredLine = declaredScope.context.currentLine;
+        updateParameters(isFinal ? initializeLine.substring(VARIABLE_FINAL.length()) : initializeLine);
+        declaredScope.context.symbols.bind(this);
+    }
+
+    /**
+     * The Contractor of a Variable whose state is already known (a variable which a call
+     * of a method replayed from the MethodCache passes, instead of being declared again).
+     *
+     * @param name          The variable name.
+     * @param typeName      The variable type name (as returned by getType).
+     * @param isFinal       True if the variable is final, else false.
+     * @param isInitialized True if the variable is initialized, else false.
+     * @param declaredScope The scope where the variable was declared.
+     */
+    Variable(String name, String typeName, boolean isFinal, boolean isInitialized, Scope declaredScope) {
+        this.name = name;
+        this.type = Type.valueOf(typeName);
+        this.isFinal = isFinal;
+        this.isInitialized = isInitialized;
+        this.isArgument = false;
+        this.declaredScope = declaredScope;
+        this.initializedScope = isInitialized ? declaredScope : null;
+    }
+
+    /**
+     * The Contractor of a copy of a global variable, in the state it had at a given point
+     * of the run (which a method that is verified apart from the rest of its file, or that
+     * refers to the variable before its declaration, uses instead of the variable itself,
+     * see ParallelVerifier and GlobalIndex).
+     *
+     * @param global           The global variable.
+     * @param declaredScope    The global scope of the run the copy belongs to.
+     * @param initializedScope The scope the variable was initialized in at that point (or null).
+     */
+    Variable(Variable global, Scope declaredScope, Scope initializedScope) {
+        this.name = global.name;
+        this.type = global.type;
+        this.data = global.data;
+        this.isFinal = global.isFinal;
+        this.isArgument = false;
+        this.declaredScope = declaredScope;
+        this.declaredLine = global.declaredLine;
+        this.isInitialized = initializedScope != null;
+        this.initializedScope = initializedScope;
+        if (this.isInitialized) this.initializedLine = global.initializedLine;
     }
 
     /**
@@ -196,25 +233,30 @@ public class Variable {
      * @throws VariableError If updating the parameter is unsuccessful it throws a VariableError.
      */
     private void updateParameters(String initializeLine) throws VariableError {
-        Matcher fullMatcher = Pattern.compile(REGEX_FULL_INIT).
-                matcher(initializeLine.trim());
-        Matcher partMatcher = Pattern.compile(REGEX_HALF_INIT).matcher(initializeLine.trim());
+        String trimmedLine = initializeLine.trim();
+        Matcher fullMatcher = SjavaPattern.VARIABLE_FULL_INIT.matcher(trimmedLine);
         // with initialization (<Type> <Name> <=> <Data>)
         if (fullMatcher.find()) {
-            if (this.isArgument) throw new VariableInitInMethodDeclaration(fullMatcher.group(TWO));
-            this.type = extractType(fullMatcher.group(ONE));
-            this.name = extractName(fullMatcher.group(TWO));
-            this.data = extractData(fullMatcher.group(THREE),
-                    false, initializeLine.trim(), this.declaredScope);
+            String typeStr = fullMatcher.group(ONE), nameStr = fullMatcher.group(TWO),
+                    dataStr = fullMatcher.group(THREE);
+            if (this.isArgument) throw new VariableInitInMethodDeclaration(nameStr);
+            this.type = extractType(typeStr);
+            this.name = extractName(nameStr);
+            this.data = extractData(dataStr, this.declaredScope.context.symbols.resolve(dataStr), false,
+                    this.declaredScope);
             this.isInitialized = true;
             this.initializedScope = declaredScope;
+            this.initializedLine = this.declaredLine;
+            return;
         }
+        Matcher partMatcher = SjavaPattern.VARIABLE_HALF_INIT.matcher(trimmedLine);
         // if this is variable is not going to be initialized yet (<Type> <Name>)
-        else if (partMatcher.find()) {
+        if (partMatcher.find()) {
+            String typeStr = partMatcher.group(ONE), nameStr = partMatcher.group(TWO);
             if (this.isFinal && !this.isArgument)
-                throw new UninitializedFinalVariable(partMatcher.group(TWO));
-            this.type = extractType(partMatcher.group(ONE));
-            this.name = extractName(partMatcher.group(TWO));
+                throw new UninitializedFinalVariable(nameStr);
+            this.type = extractType(typeStr);
+            this.name = extractName(nameStr);
             this.isInitialized = false;
         } else throw new BadVariableDeclaration(initializeLine, this.isArgument);
     }
@@ -227,12 +269,20 @@ public class Variable {
      * @throws VariableError If the given Type is invalid throws a VariableError.
      */
     private Type extractType(String typeStr) throws VariableError {
-        Matcher matcher;
-        for (Type type : Type.values()) {
-            matcher = type.typePattern.matcher(typeStr);
-            if (matcher.find()) return type;
-        }
-        throw new BadVariableType(typeStr);
+        Type type = TYPES.get(typeStr);
+        if (type == null) throw new BadVariableType(typeStr);
+        return type;
+    }
+
+    /**
+     * Maps the types by their keywords.
+     *
+     * @return The map.
+     */
+    private static HashMap<String, Type> typesByKeyword() {
+        HashMap<String, Type> types = new HashMap<>();
+        for (Type type : Type.values()) types.put(type.keyword, type);
+        return types;
     }
 
     /**
@@ -248,17 +298,16 @@ public class Variable {
                 this.declaredScope.arguments.containsKey(nameStr))
             throw new BadVariableNameAlreadyExists(nameStr);
         // if the name starts with a digit
-        if (Pattern.compile(REGEX_DIGIT).matcher(nameStr).find()) {
+        if (SjavaPattern.NAME_DIGIT.find(nameStr)) {
             throw new BadVariableNameDigit(nameStr);
             // if the name is a only a single underscore
-        } else if (Pattern.compile(REGEX_UNDERSCORE).matcher(nameStr).find()) {
+        } else if (SjavaPattern.NAME_UNDERSCORE.find(nameStr)) {
             throw new BadVariableNameUnderscore(nameStr);
             // if the name contains illegal characters (not letters or digits)
-        } else if (Pattern.compile(REGEX_DIGIT_WORDS).matcher(nameStr).find()) {
+        } else if (SjavaPattern.NAME_ILLEGAL.find(nameStr)) {
             throw new BadVariableNameIllegal(nameStr);
             // if the name is one of the reserved keyword
-        } else if (Pattern.compile(SAVED_WORDS)
-                .matcher(nameStr).find()) {
+        } else if (SjavaPattern.NAME_SAVED_WORD.find(nameStr)) {
             throw new BadVariableNameSavedKeyword(nameStr);
         } else return nameStr;
     }
@@ -267,43 +316,32 @@ public class Variable {
      * Finds the data of the Variable
      *
      * @param dataStr            the data String.
+     * @param existingVariable   The variable (or argument) the data String refers to, or null.
      * @param isFromCallsHandler If the method was called from the callsHandler class.
-     * @param initializeLine     The initialization line of the variable.
      * @param scope              The scope from which the variable was created.
      * @return The matching Data class with the a data value.
      * @throws VariableError If the Variable data is invalid.
      */
-    private Data<?> extractData(String dataStr, boolean isFromCallsHandler, String initializeLine,
+    private Data<?> extractData(String dataStr, Variable existingVariable, boolean isFromCallsHandler,
                                 Scope scope) throws VariableError {
         // checks for an already existing variable or argument
-        Variable existingVariable = getExistsInVariablesOrArguments(dataStr);
         if (existingVariable != null) {
             if (!existingVariable.isArgument &&
                     (!existingVariable.isInitialized ||
                             !initializedInOuterScope(existingVariable, scope, isFromCallsHandler)))
                 throw new UninitializedParameter(existingVariable.getName());
                 // checks if this is a valid casting
-            else if (this.getType().equals(existingVariable.getType()) ||
-                    (this.type == Type.DOUBLE && existingVariable.getType().
-                            equals(VARIABLE_TYPE_INT.toUpperCase())) ||
-                    (this.type == Type.BOOLEAN && (existingVariable.getType().
-                            equals(VARIABLE_TYPE_INT.toUpperCase())
-                            || existingVariable.getType().
-                            equals(VARIABLE_TYPE_DOUBLE.toUpperCase())))) {
+            else if (isAssignableFrom(existingVariable)) {
                 return existingVariable.getDataObject();
             } else throw new IllegalVariableCasting(this, existingVariable);
         }
 
         // creates a new data value
-        Matcher matcher = this.type.valuePattern.matcher(dataStr);
-        if (!matcher.find()) {
+        if ((LiteralClassifier.classify(dataStr) & this.type.bit) == LiteralClassifier.NONE) {
             // if the variable is self assigned
             if (this.name.equals(dataStr)) throw new SelfAssign(this.name);
             // if there is no existing variable or argument
-            if (this.declaredScope.callFromMethod() && initializeLine != null) {
-                GlobalVariablesChecker.addDeclaration(initializeLine);
-                return null;
-            } else throw new BadVariableData(this, dataStr);
+            throw new BadVariableData(this, dataStr);
         }
         switch (this.type) {
             case INT:
@@ -311,9 +349,9 @@ public class Variable {
             case DOUBLE:
                 return new Data<>(Double.parseDouble(dataStr));
             case STRING:
-                return new Data<>(matcher.group(ONE));
+                return new Data<>(dataStr.substring(ONE, dataStr.length() - ONE));
             case CHAR:
-                return new Data<>(matcher.group(ONE).charAt(Scope.ZERO));
+                return new Data<>(dataStr.charAt(ONE));
             case BOOLEAN:
                 if (dataStr.equals(Scondition.TRUE_VALUE) || dataStr.equals(Scondition.FALSE_VALUE))
                     return new Data<>(Boolean.parseBoolean(dataStr));
@@ -343,21 +381,6 @@ public class Variable {
         return false;
     }
 
-    /**
-     * This method returns a reference to a Variable with a key equals to the
-     * given String. The Variable returned may be a variable, an argument, or a null
-     * pointer in case no variable or argument with a key equals to the given String was found.
-     *
-     * @param dataStr A String of the desired Variable key.
-     * @return A reference to the desired variable, or a null pointer in case no
-     * matching varible was found.
-     */
-    private Variable getExistsInVariablesOrArguments(String dataStr) {
-        if (existingVariables.containsKey(dataStr)) {
-            return existingVariables.get(dataStr);
-        } else return existingArguments.getOrDefault(dataStr, null);
-    }
-
 
     /**
      * Sets the Variable data to the given data.
@@ -369,9 +392,24 @@ public class Variable {
      */
     public void setData(String dataStr, boolean isFromCallsHandler, Scope scope) throws VariableError {
         if (this.isFinal && !isFromCallsHandler) throw new IllegalFinalDataChange(this);
-        else this.data = extractData(dataStr, isFromCallsHandler, null, scope);
+        // the value is resolved where it is assigned
+        else this.data = extractData(dataStr, scope.context.symbols.resolve(dataStr), isFromCallsHandler, scope);
+        VerificationContext context = scope.context;
+        if (context.recording != null && this.declaredScope == context.globalScope)
+            context.recording.initializeGlobal(this.name);
+        markInitialized(scope);
+    }
+
+    /**
+     * Marks the Variable as initialized.
+     *
+     * @param scope The scope in which the variable is initialized.
+     */
+    void markInitialized(Scope scope) {
         this.isInitialized = true;
-        if (this.initializedScope == null) this.initializedScope = scope;
+        if (this.initializedScope != null) return;
+        this.initializedScope = scope;
+        this.initializedLine = scope.context.currentLine;
     }
 
     /**
@@ -392,6 +430,43 @@ public class Variable {
         return this.type.toString();
     }
 
+    /**
+     * Gets the Variable type bit (see LiteralClassifier).
+     *
+     * @return The type bit.
+     */
+    int typeBit() {
+        return this.type.bit;
+    }
+
+    /**
+     * Gets the bits of the types which may be assigned to the Variable.
+     *
+     * @return The assignable type bits.
+     */
+    int assignableTypes() {
+        return this.type.assignableFrom;
+    }
+
+    /**
+     * Checks if the value of another variable may be assigned to this variable.
+     *
+     * @param other The other variable.
+     * @return True if the other variable's type is assignable to this variable's type, else false.
+     */
+    boolean isAssignableFrom(Variable other) {
+        return (other.type.bit & this.type.assignableFrom) != LiteralClassifier.NONE;
+    }
+
+    /**
+     * Checks if the Variable may be used as an if/while condition.
+     *
+     * @return True if the Variable is a boolean, an int or a double, else false.
+     */
+    boolean isConditionType() {
+        return (this.type.bit & LiteralClassifier.CONDITION_TYPES) != LiteralClassifier.NONE;
+    }
+
     /**
      * Gets the Variable data.
      *
@@ -429,10 +504,12 @@ public class Variable {
     }
 
     /**
-     * Removes the Variable object from the existing variables hash set.
+     * Gets the argument status.
+     *
+     * @return True if the Variable is an argument of a method, else false.
      */
-    public void delete() {
-        existingVariables.remove(this.name);
+    public boolean isArgument() {
+        return isArgument;
     }
 }
 
@@ -3,7 +3,7 @@ package oop.ex5.main;
 /**
  * Variable Error class.
  */
-public class VariableError extends Exception {
+public class VariableError extends SjavaError {
 
     /**
      * super constructor for a  Variable Error
@@ -13,6 +13,16 @@ public class VariableError extends Exception {
     public VariableError(String errorMessage) {
         super(errorMessage);
     }
+
+    /**
+     * super constructor for a  Variable Error with an error code.
+     *
+     * @param code      The error code.
+     * @param arguments The message arguments.
+     */
+    VariableError(Code code, Object... arguments) {
+        super(code, arguments);
+    }
 }
 
 /**
@@ -23,8 +33,7 @@ class BadVariableDeclaration extends VariableError {
      * The Error constructor.
      */
     public BadVariableDeclaration(String initializeLine, boolean isArguments) {
-        super("'" + initializeLine + "' is not a valid " +
-                ((isArguments) ? "argument" : "variable") + " declaration.");
+        super(Code.BAD_VARIABLE_DECLARATION, initializeLine, isArguments ? "argument" : "variable");
     }
 }
 
@@ -36,7 +45,7 @@ class BadVariableNameDigit extends VariableError {
      * The Error constructor.
      */
     public BadVariableNameDigit(String name) {
-        super("'" + name + "' is an invalid Variable Name, Can't start with a digit.");
+        super(Code.BAD_VARIABLE_NAME_DIGIT, name);
     }
 }
 
@@ -48,7 +57,7 @@ class BadVariableNameUnderscore extends VariableError {
      * The Error constructor.
      */
     public BadVariableNameUnderscore(String name) {
-        super("'" + name + "' is an invalid Variable Name, can't be only an underscore.");
+        super(Code.BAD_VARIABLE_NAME_UNDERSCORE, name);
     }
 }
 
@@ -60,7 +69,7 @@ class BadVariableNameIllegal extends VariableError {
      * The Error constructor.
      */
     public BadVariableNameIllegal(String name) {
-        super("'" + name + "' is an invalid Variable Name, contains illegal characters.");
+        super(Code.BAD_VARIABLE_NAME_ILLEGAL, name);
     }
 }
 
@@ -72,7 +81,7 @@ class BadVariableNameSavedKeyword extends VariableError {
      * The Error constructor.
      */
     public BadVariableNameSavedKeyword(String name) {
-        super("'" + name + "' is an invalid Variable Name, This name is a saved keyword.");
+        super(Code.BAD_VARIABLE_NAME_SAVED_KEYWORD, name);
     }
 }
 
@@ -84,7 +93,7 @@ class BadVariableNameAlreadyExists extends VariableError {
      * The Error constructor.
      */
     public BadVariableNameAlreadyExists(String name) {
-        super("'Variable '" + name + "' is already defined in the scope.");
+        super(Code.BAD_VARIABLE_NAME_ALREADY_EXISTS, name);
     }
 }
 
@@ -96,7 +105,7 @@ class BadVariableType extends VariableError {
      * The Error constructor.
      */
     public BadVariableType(String type) {
-        super("" + type + " is an invalid Variable type.");
+        super(Code.BAD_VARIABLE_TYPE, type);
     }
 }
 
@@ -108,8 +117,7 @@ class BadVariableData extends VariableError {
      * The Error constructor.
      */
     public BadVariableData(Variable variable, String data) {
-        super(data + " is an invalid value for a " +
-                variable.getType().toLowerCase() + " variable.");
+        super(Code.BAD_VARIABLE_DATA, data, variable.getType().toLowerCase());
     }
 }
 
@@ -121,7 +129,7 @@ class IllegalFinalDataChange extends VariableError {
      * The Error constructor.
      */
     public IllegalFinalDataChange(Variable variable) {
-        super("Cannot assign a value to final variable '" + variable.getName() + "'.");
+        super(Code.ILLEGAL_FINAL_DATA_CHANGE, variable.getName());
     }
 }
 
@@ -133,8 +141,7 @@ class IllegalVariableCasting extends VariableError {
      * The Error constructor.
      */
     public IllegalVariableCasting(Variable thisVariable, Variable otherVariable) {
-        super("Cannot assign a " + otherVariable.getType() + " member to a " +
-                thisVariable.getType() + " variable.");
+        super(Code.ILLEGAL_VARIABLE_CASTING, otherVariable.getType(), thisVariable.getType());
     }
 }
 
@@ -146,7 +153,7 @@ class VariableDoesNotExist extends VariableError {
      * The Error constructor.
      */
     public VariableDoesNotExist(String name) {
-        super("Cannot resolve symbol '" + name + "'.");
+        super(Code.VARIABLE_DOES_NOT_EXIST, name);
     }
 }
 
@@ -158,7 +165,7 @@ class InvalidVariableAssignment extends VariableError {
      * The Error constructor.
      */
     public InvalidVariableAssignment(String possibleAssignment) {
-        super(possibleAssignment + " is not a valid assignment.");
+        super(Code.INVALID_VARIABLE_ASSIGNMENT, possibleAssignment);
     }
 }
 
@@ -170,7 +177,7 @@ class UninitializedParameter extends VariableError {
      * The Error constructor.
      */
     UninitializedParameter(String param) {
-        super(param + " is not initialized.");
+        super(Code.UNINITIALIZED_PARAMETER, param);
     }
 }
 
@@ -182,7 +189,7 @@ class VariableInitInMethodDeclaration extends VariableError {
      * The Error constructor.
      */
     VariableInitInMethodDeclaration(String variable) {
-        super(variable + " can not be initialized in a method declaration.");
+        super(Code.VARIABLE_INIT_IN_METHOD_DECLARATION, variable);
     }
 }
 
@@ -194,7 +201,7 @@ class UninitializedVariable extends VariableError {
      * The Error constructor.
      */
     UninitializedVariable(String variable) {
-        super(variable + " is uninitialized.");
+        super(Code.UNINITIALIZED_VARIABLE, variable);
     }
 }
 
@@ -206,8 +213,7 @@ class UninitializedFinalVariable extends VariableError {
      * The Error constructor.
      */
     UninitializedFinalVariable(String variable) {
-        super("Final " + variable +
-                " is uninitialized.");
+        super(Code.UNINITIALIZED_FINAL_VARIABLE, variable);
     }
 }
 
@@ -219,8 +225,7 @@ class SelfAssign extends VariableError {
      * The Error constructor.
      */
     SelfAssign(String variable) {
-        super("Variable '" + variable + "'" +
-                " might not have been initialized.");
+        super(Code.SELF_ASSIGN, variable);
     }
 }
 
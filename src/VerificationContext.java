@@ -0,0 +1,231 @@
+package oop.ex5.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The state of a single verification run: all the symbols, methods and deferred
+ * method calls which are collected while the file's scopes are scanned.
+ * Each run creates its own context, which is passed to the global scope and from
+ * it to every inner scope, so several files can be verified at the same time
+ * (in different threads) without sharing any state.
+ * A run which collects several errors records every error its scopes' scans meet, and
+ * goes on from the next statement or scope, until its maximal number of errors is reached.
+ * A run which verifies its methods in parallel gives every method a context of its own
+ * (see ParallelVerifier), whose methods and deferred calls are merged into the run's
+ * context once the method is verified.
+ */
+public class VerificationContext {
+
+    /**
+     * The maximal number of errors of a run which stops at its first error.
+     */
+    public final static int STOP_AT_FIRST_ERROR = 1;
+
+    /**
+     * The version of the verification rules, which must be increased by every change that
+     * changes the result of some source (its output type, or its error), so the stored
+     * results (see ResultStore) and cached methods (see MethodCache) of older rules are not
+     * used. Version 2 reports the exact line of a brackets error, 3 classifies int literals
+     * out of the int range as doubles, 4 stops a method's locals (and a condition's shadowing
+     * variables) from leaking out of their scopes, 5 reports calls of commas only (e.g.
+     * 'foo(,);') as calls with a bad number of arguments, 6 reports the errors of forward
+     * global references at their lines, 7 reports the brackets of a file before any of
+     * its other errors, and 8 passes no arguments only by a call of white spaces (e.g.
+     * 'foo( );', but not 'foo(,);').
+     */
+    public final static int RULES_VERSION = 8;
+
+    /**
+     * The variables and arguments which are visible at the point the run has reached.
+     */
+    final SymbolTable symbols;
+
+    /**
+     * The global variables which are visible to the method of a method's context, or null
+     * for the context of a whole run.
+     */
+    final ParallelVerifier.GlobalsView globals;
+
+    /**
+     * The nodes of the methods which the global scope's scan reached, while a run which
+     * verifies its methods in parallel collects them (null otherwise).
+     */
+    List<Integer> pendingMethods;
+
+    /**
+     * A HashMap holding all the existing Methods.
+     */
+    final HashMap<String, Method> allMethods = new HashMap<>();
+
+    /**
+     * The checker of the method calls of this run.
+     */
+    final MethodCallsChecker methodCalls;
+
+    /**
+     * The program's global scope.
+     */
+    Scope globalScope;
+
+    /**
+     * The cache of verified method bodies, or null if the run does not use one.
+     */
+    final MethodCache methodCache;
+
+    /**
+     * The statistics of this run, or null if the run does not record statistics.
+     */
+    final VerificationStats stats;
+
+    /**
+     * The cache entry of the method which is being scanned, or null if the scan is not recorded.
+     */
+    MethodCache.Entry recording;
+
+    /**
+     * The (zero based) number of the line which is being scanned, which is the line of
+     * the deferred checks it adds (a replayed cached method adds its checks at its
+     * declaration line), or SjavaError.NO_LINE.
+     */
+    int currentLine = SjavaError.NO_LINE;
+
+    /**
+     * The number of errors after which the run stops.
+     */
+    final int maxErrors;
+
+    /**
+     * The errors which were recorded so far (by a run which collects several errors).
+     */
+    private final List<SjavaError> errors = new ArrayList<>();
+
+    /**
+     * Creates the context of a run without a method cache.
+     */
+    public VerificationContext() {
+        this(null);
+    }
+
+    /**
+     * Creates the context of a run.
+     *
+     * @param methodCache The cache of verified method bodies (or null).
+     */
+    public VerificationContext(MethodCache methodCache) {
+        this(methodCache, null);
+    }
+
+    /**
+     * Creates the context of a run.
+     *
+     * @param methodCache The cache of verified method bodies (or null).
+     * @param stats       The statistics of the run (or null).
+     */
+    public VerificationContext(MethodCache methodCache, VerificationStats stats) {
+        this(methodCache, stats, STOP_AT_FIRST_ERROR);
+    }
+
+    /**
+     * Creates the context of a run.
+     *
+     * @param methodCache The cache of verified method bodies (or null).
+     * @param stats       The statistics of the run (or null).
+     * @param maxErrors   The number of errors after which the run stops (at least 1).
+     */
+    public VerificationContext(MethodCache methodCache, VerificationStats stats, int maxErrors) {
+        if (maxErrors < STOP_AT_FIRST_ERROR) throw new IllegalArgumentException("Invalid maximal errors number.");
+        this.methodCache = methodCache;
+        this.stats = stats;
+        this.maxErrors = maxErrors;
+        this.globals = null;
+        this.symbols = new SymbolTable();
+        this.methodCalls = new MethodCallsChecker(this);
+    }
+
+    /**
+     * Creates the context of a single method of a run, which is verified apart from the rest
+     * of its file (see ParallelVerifier).
+     *
+     * @param run     The context of the run.
+     * @param globals The global variables which are visible to the method.
+     * @param stats   The statistics of the method's verification (or null).
+     */
+    VerificationContext(VerificationContext run, ParallelVerifier.GlobalsView globals, VerificationStats stats) {
+        this.methodCache = run.methodCache;
+        this.stats = stats;
+        this.maxErrors = run.maxErrors;
+        this.globalScope = run.globalScope;
+        this.globals = globals;
+        this.symbols = new SymbolTable(globals);
+        this.methodCalls = new MethodCallsChecker(this);
+    }
+
+    /**
+     * Gets a global variable which is visible at the point the run has reached.
+     *
+     * @param name The variable name.
+     * @return The variable (or its copy, in a method's context or before its declaration),
+     * or null if there is no such variable.
+     */
+    Variable globalVariable(String name) {
+        if (this.globals != null) return this.globals.get(name);
+        Variable global = this.globalScope.variables.get(name);
+        return global != null ? global : this.symbols.hoisted(name);
+    }
+
+    /**
+     * Records an error, if the run collects several errors.
+     * An error which was already recorded (by the scan of an inner scope, which stopped
+     * because the maximal number of errors was reached) is not recorded again.
+     *
+     * @param error The error.
+     * @return True if the run goes on after the error, false if the error ends the run.
+     */
+    boolean collect(SjavaError error) {
+        if (this.maxErrors == STOP_AT_FIRST_ERROR) return false;
+        if (!this.errors.isEmpty() && this.errors.get(this.errors.size() - 1) == error) return false;
+        this.errors.add(error);
+        return this.errors.size() < this.maxErrors;
+    }
+
+    /**
+     * Gets the number of the errors which were recorded so far.
+     *
+     * @return The number of errors.
+     */
+    int errorCount() {
+        return this.errors.size();
+    }
+
+    /**
+     * Gets the errors which were recorded by a run which collects several errors.
+     *
+     * @return The errors, by the order they were met.
+     */
+    public List<SjavaError> getErrors() {
+        return Collections.unmodifiableList(this.errors);
+    }
+
+    /**
+     * Runs the final check for method calls. Some methods might be declared after their
+     * calls (the global variables a method refers to are known while it is scanned, see
+     * GlobalIndex).
+     *
+     * @throws ScopeError    If there is Scope error.
+     * @throws MethodError   If there is Method error.
+     * @throws VariableError If there is Variable error.
+     */
+    public void finalChecks() throws ScopeError, MethodError, VariableError {
+        if (this.stats == null) {
+            this.methodCalls.CheckCalls();
+            return;
+        }
+        this.stats.countCalls(this.methodCalls.size());
+        this.stats.begin(VerificationStats.Phase.CALLS);
+        this.methodCalls.CheckCalls();
+        this.stats.end();
+    }
+}
@@ -0,0 +1,200 @@
+package oop.ex5.main;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The options of a Verifier and of its verifications: the executor of the asynchronous
+ * verifications, the method cache, the result store and the statistics the verifications
+ * add to. The options are immutable - every 'with' method returns a copy which differs
+ * only in the given option - so a single options object may be shared by many verifiers:
+ * new Verifier(VerificationOptions.defaults().withMethodCache(cache).withStats(stats))
+ */
+public final class VerificationOptions {
+
+    /**
+     * The options of a verifier which uses no cache, store or statistics.
+     */
+    private final static VerificationOptions DEFAULTS = new VerificationOptions(null, null, null, null,
+            VerificationContext.STOP_AT_FIRST_ERROR, null);
+
+    /**
+     * The executor of the asynchronous verifications, or null for the default executor.
+     */
+    private final Executor executor;
+
+    /**
+     * The cache of verified method bodies (or null).
+     */
+    private final MethodCache methodCache;
+
+    /**
+     * The store of whole-file results (or null).
+     */
+    private final ResultStore resultStore;
+
+    /**
+     * The statistics which every verification adds to (or null).
+     */
+    private final VerificationStats stats;
+
+    /**
+     * The number of errors after which a verification stops.
+     */
+    private final int maxErrors;
+
+    /**
+     * The pool the methods are verified on, or null for a sequential verification.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The class's constructor.
+     *
+     * @param executor    The executor of the asynchronous verifications (or null).
+     * @param methodCache The cache of verified method bodies (or null).
+     * @param resultStore The store of whole-file results (or null).
+     * @param stats       The statistics which every verification adds to (or null).
+     * @param maxErrors   The number of errors after which a verification stops.
+     * @param pool        The pool the methods are verified on (or null).
+     */
+    private VerificationOptions(Executor executor, MethodCache methodCache, ResultStore resultStore,
+                                VerificationStats stats, int maxErrors, ForkJoinPool pool) {
+        this.executor = executor;
+        this.methodCache = methodCache;
+        this.resultStore = resultStore;
+        this.stats = stats;
+        this.maxErrors = maxErrors;
+        this.pool = pool;
+    }
+
+    /**
+     * Gets the default options: the default executor, and no cache, store or statistics.
+     *
+     * @return The default options.
+     */
+    public static VerificationOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Sets the executor of the asynchronous verifications.
+     *
+     * @param executor The executor, or null for the default executor (virtual threads, when
+     *                 the running JVM supports them).
+     * @return The new options.
+     */
+    public VerificationOptions withExecutor(Executor executor) {
+        return new VerificationOptions(executor, this.methodCache, this.resultStore, this.stats, this.maxErrors,
+                this.pool);
+    }
+
+    /**
+     * Sets the cache of verified method bodies (see MethodCache).
+     *
+     * @param methodCache The cache (or null).
+     * @return The new options.
+     */
+    public VerificationOptions withMethodCache(MethodCache methodCache) {
+        return new VerificationOptions(this.executor, methodCache, this.resultStore, this.stats, this.maxErrors,
+                this.pool);
+    }
+
+    /**
+     * Sets the store of whole-file results (see ResultStore).
+     *
+     * @param resultStore The store (or null).
+     * @return The new options.
+     */
+    public VerificationOptions withResultStore(ResultStore resultStore) {
+        return new VerificationOptions(this.executor, this.methodCache, resultStore, this.stats, this.maxErrors,
+                this.pool);
+    }
+
+    /**
+     * Sets the statistics which every verification adds to (see VerificationStats).
+     *
+     * @param stats The statistics (or null).
+     * @return The new options.
+     */
+    public VerificationOptions withStats(VerificationStats stats) {
+        return new VerificationOptions(this.executor, this.methodCache, this.resultStore, stats, this.maxErrors,
+                this.pool);
+    }
+
+    /**
+     * Sets the number of errors after which a verification stops.
+     *
+     * @param maxErrors The number of errors (at least 1).
+     * @return The new options.
+     */
+    VerificationOptions withMaxErrors(int maxErrors) {
+        return new VerificationOptions(this.executor, this.methodCache, this.resultStore, this.stats, maxErrors,
+                this.pool);
+    }
+
+    /**
+     * Sets the pool the methods are verified on (see ParallelVerifier).
+     *
+     * @param pool The pool, or null for a sequential verification.
+     * @return The new options.
+     */
+    VerificationOptions withPool(ForkJoinPool pool) {
+        return new VerificationOptions(this.executor, this.methodCache, this.resultStore, this.stats,
+                this.maxErrors, pool);
+    }
+
+    /**
+     * Gets the executor of the asynchronous verifications.
+     *
+     * @return The executor, or null for the default executor.
+     */
+    Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Gets the cache of verified method bodies.
+     *
+     * @return The cache (or null).
+     */
+    MethodCache getMethodCache() {
+        return this.methodCache;
+    }
+
+    /**
+     * Gets the store of whole-file results.
+     *
+     * @return The store (or null).
+     */
+    ResultStore getResultStore() {
+        return this.resultStore;
+    }
+
+    /**
+     * Gets the statistics which every verification adds to.
+     *
+     * @return The statistics (or null).
+     */
+    VerificationStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * Gets the number of errors after which a verification stops.
+     *
+     * @return The number of errors.
+     */
+    int getMaxErrors() {
+        return this.maxErrors;
+    }
+
+    /**
+     * Gets the pool the methods are verified on.
+     *
+     * @return The pool, or null for a sequential verification.
+     */
+    ForkJoinPool getPool() {
+        return this.pool;
+    }
+}
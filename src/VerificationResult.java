@@ -0,0 +1,125 @@
+package oop.ex5.main;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of the verification of a single s-Java source: its output type
+ * (legal, illegal or an IO error) and the error which caused it, if any.
+ */
+public class VerificationResult {
+
+    /**
+     * The verified source (a file path).
+     */
+    private final String source;
+
+    /**
+     * The output type of the verification.
+     */
+    private final Sjavac.OutputType outputType;
+
+    /**
+     * The error which made the source illegal or unreadable (null if the source is legal).
+     */
+    private final Exception error;
+
+    /**
+     * All the errors of a verification which collected several errors (null otherwise).
+     */
+    private final List<SjavaError> errors;
+
+    /**
+     * The class's constructor.
+     *
+     * @param source     The verified source.
+     * @param outputType The output type of the verification.
+     * @param error      The error which made the source illegal or unreadable, or null.
+     */
+    VerificationResult(String source, Sjavac.OutputType outputType, Exception error) {
+        this.source = source;
+        this.outputType = outputType;
+        this.error = error;
+        this.errors = null;
+    }
+
+    /**
+     * The constructor of the result of an illegal source, whose verification collected several errors.
+     *
+     * @param source The verified source.
+     * @param errors The errors, by the order they were met (at least one).
+     */
+    VerificationResult(String source, List<SjavaError> errors) {
+        this.source = source;
+        this.outputType = Sjavac.OutputType.ILLEGAL;
+        this.error = errors.get(Sjavac.ZERO);
+        this.errors = errors;
+    }
+
+    /**
+     * Gets the verified source.
+     *
+     * @return The verified source.
+     */
+    public String getSource() {
+        return this.source;
+    }
+
+    /**
+     * Gets the output type of the verification.
+     *
+     * @return The output type.
+     */
+    public Sjavac.OutputType getOutputType() {
+        return this.outputType;
+    }
+
+    /**
+     * Gets the numeric output code of the verification (0 - legal, 1 - illegal, 2 - IO error).
+     *
+     * @return The output code.
+     */
+    public int getCode() {
+        return this.outputType.ordinal();
+    }
+
+    /**
+     * Gets the error which made the source illegal or unreadable.
+     *
+     * @return The error, or null if the source is legal.
+     */
+    public Exception getError() {
+        return this.error;
+    }
+
+    /**
+     * Gets all the errors which made the source illegal.
+     *
+     * @return The errors, by the order they were met: all the collected errors of a
+     * verification which collected several errors, and at most the single error otherwise.
+     */
+    public List<SjavaError> getErrors() {
+        if (this.errors != null) return Collections.unmodifiableList(this.errors);
+        return this.error instanceof SjavaError ? Collections.singletonList((SjavaError) this.error) :
+                Collections.emptyList();
+    }
+
+    /**
+     * Gets the number of the line of the error.
+     *
+     * @return The (one based) line number, or SjavaError.NO_LINE if the source is legal,
+     * unreadable, or the error's line is unknown (e.g. an error of a deferred check).
+     */
+    public int getLine() {
+        return this.error instanceof SjavaError ? ((SjavaError) this.error).getLine() : SjavaError.NO_LINE;
+    }
+
+    /**
+     * Gets the error message.
+     *
+     * @return The error message, or an empty String if the source is legal.
+     */
+    public String getMessage() {
+        return this.error == null ? Scope.REGEX_EMPTY : String.valueOf(this.error.getMessage());
+    }
+}
@@ -0,0 +1,375 @@
+package oop.ex5.main;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The timing and counters of verification runs, by phase: the file read, the parse, the
+ * pre-pass which indexes the global variables (see GlobalIndex), the global Scope.scan, the
+ * Method constructions (which scan the method bodies) and the method calls check.
+ * A run records its own statistics (from a single thread, without any locking), and adds
+ * them to the statistics of all the runs when it ends. The phases are exclusive - the time
+ * of the global scan does not include the methods which were constructed during it.
+ * The allocations are measured per thread, on JVMs which support it.
+ */
+public class VerificationStats implements VerificationStatsMXBean {
+
+    /**
+     * The option which prints the statistics of a run.
+     */
+    public final static String STATS_OPTION = "--stats";
+
+    /**
+     * The name of the statistics MBean.
+     */
+    public final static String OBJECT_NAME = "oop.ex5.main:type=VerificationStats";
+
+    /**
+     * The verification phases.
+     */
+    public enum Phase {
+        READ("file read"), PARSE("parse"), INDEX("GlobalIndex pre-pass"), GLOBAL_SCAN("global Scope.scan"),
+        METHODS("Method construction"), CALLS("MethodCallsChecker.CheckCalls");
+
+        /**
+         * The phase's printed name.
+         */
+        private final String title;
+
+        /**
+         * The enum constructor.
+         *
+         * @param title The phase's printed name.
+         */
+        Phase(String title) {
+            this.title = title;
+        }
+
+        /**
+         * Gets the phase's printed name.
+         *
+         * @return The name.
+         */
+        @Override
+        public String toString() {
+            return this.title;
+        }
+    }
+
+    /**
+     * All the phases, by their ordinal number.
+     */
+    private final static Phase[] PHASES = Phase.values();
+
+    /**
+     * The number of nanoseconds in a millisecond, and of bytes in a kilobyte.
+     */
+    private final static double NANOS_PER_MILLI = 1e6, BYTES_PER_KILOBYTE = 1024;
+
+    /**
+     * The allocation counter of the threads, or null if the JVM does not measure allocations.
+     */
+    private final static com.sun.management.ThreadMXBean ALLOCATIONS = allocationsCounter();
+
+    /**
+     * The time and allocated bytes of every phase.
+     */
+    private final long[] nanos = new long[PHASES.length], bytes = new long[PHASES.length];
+
+    /**
+     * The phases which are running, from the outermost one (only the last one is measured).
+     */
+    private final Phase[] running = new Phase[PHASES.length];
+
+    /**
+     * The number of running phases.
+     */
+    private int depth = 0;
+
+    /**
+     * The time and the allocated bytes counter when the last running phase was (re)started.
+     */
+    private long startNanos, startBytes;
+
+    /**
+     * The counters.
+     */
+    private long sources, lines, scopes, variables, calls, indexedGlobals;
+
+    /**
+     * Starts a phase, pausing the phase which is running (if any).
+     *
+     * @param phase The phase.
+     */
+    void begin(Phase phase) {
+        if (this.depth > 0) pause(this.running[this.depth - 1]);
+        this.running[this.depth++] = phase;
+        restart();
+    }
+
+    /**
+     * Ends the last started phase, resuming the phase which it paused (if any).
+     */
+    void end() {
+        pause(this.running[--this.depth]);
+        if (this.depth > 0) restart();
+    }
+
+    /**
+     * Ends all the running phases (of a run which stopped at an error).
+     */
+    void endAll() {
+        while (this.depth > 0) end();
+    }
+
+    /**
+     * Counts a verified source and its lines.
+     *
+     * @param lines The number of the source's lines.
+     */
+    void countSource(long lines) {
+        this.sources++;
+        this.lines += lines;
+    }
+
+    /**
+     * Counts the lines of a source which is read while it is verified.
+     *
+     * @param lines The number of lines.
+     */
+    void countLines(long lines) {
+        this.lines += lines;
+    }
+
+    /**
+     * Counts a created scope.
+     */
+    void countScope() {
+        this.scopes++;
+    }
+
+    /**
+     * Counts a declared variable (or a method argument).
+     */
+    void countVariable() {
+        this.variables++;
+    }
+
+    /**
+     * Counts the checked calls of a run.
+     *
+     * @param calls The number of method calls.
+     */
+    void countCalls(long calls) {
+        this.calls += calls;
+    }
+
+    /**
+     * Counts the global variables which the pre-pass of a run indexed.
+     *
+     * @param globals The number of global variables.
+     */
+    void countIndexedGlobals(long globals) {
+        this.indexedGlobals += globals;
+    }
+
+    /**
+     * Adds the statistics of a single run to these statistics.
+     *
+     * @param run The statistics of the run.
+     */
+    synchronized void add(VerificationStats run) {
+        for (int i = 0; i < PHASES.length; i++) {
+            this.nanos[i] += run.nanos[i];
+            this.bytes[i] += run.bytes[i];
+        }
+        this.sources += run.sources;
+        this.lines += run.lines;
+        this.scopes += run.scopes;
+        this.variables += run.variables;
+        this.calls += run.calls;
+        this.indexedGlobals += run.indexedGlobals;
+    }
+
+    /**
+     * Registers these statistics as an MBean in the platform MBean server.
+     *
+     * @throws JMException If the MBean could not be registered.
+     */
+    public void register() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    /**
+     * Gets the number of verified sources.
+     *
+     * @return The number of sources.
+     */
+    @Override
+    public synchronized long getSources() {
+        return this.sources;
+    }
+
+    /**
+     * Gets the number of verified lines.
+     *
+     * @return The number of lines.
+     */
+    @Override
+    public synchronized long getLines() {
+        return this.lines;
+    }
+
+    /**
+     * Gets the number of created scopes (including the global scopes).
+     *
+     * @return The number of scopes.
+     */
+    @Override
+    public synchronized long getScopes() {
+        return this.scopes;
+    }
+
+    /**
+     * Gets the number of declared variables and method arguments.
+     *
+     * @return The number of variables.
+     */
+    @Override
+    public synchronized long getVariables() {
+        return this.variables;
+    }
+
+    /**
+     * Gets the number of checked method calls.
+     *
+     * @return The number of calls.
+     */
+    @Override
+    public synchronized long getCalls() {
+        return this.calls;
+    }
+
+    /**
+     * Gets the number of global variables which the pre-passes indexed.
+     *
+     * @return The number of indexed globals.
+     */
+    @Override
+    public synchronized long getIndexedGlobals() {
+        return this.indexedGlobals;
+    }
+
+    /**
+     * Gets the wall time of every phase.
+     *
+     * @return The nanoseconds spent in every phase, by the phase's name.
+     */
+    @Override
+    public synchronized Map<String, Long> getPhaseNanos() {
+        return byPhase(this.nanos);
+    }
+
+    /**
+     * Gets the bytes allocated by every phase.
+     *
+     * @return The bytes allocated in every phase, by the phase's name (-1 if the JVM does
+     * not measure allocations).
+     */
+    @Override
+    public synchronized Map<String, Long> getPhaseAllocatedBytes() {
+        if (ALLOCATIONS == null) {
+            Map<String, Long> unknown = new LinkedHashMap<>();
+            for (Phase phase : PHASES) unknown.put(phase.name(), -1L);
+            return unknown;
+        }
+        return byPhase(this.bytes);
+    }
+
+    /**
+     * Resets all the statistics.
+     */
+    @Override
+    public synchronized void reset() {
+        for (int i = 0; i < PHASES.length; i++) {
+            this.nanos[i] = 0;
+            this.bytes[i] = 0;
+        }
+        this.sources = this.lines = this.scopes = this.variables = this.calls = this.indexedGlobals = 0;
+    }
+
+    /**
+     * Creates the printed report of the statistics.
+     *
+     * @return The report: the counters, and the time and allocations of every phase.
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder report = new StringBuilder(String.format(
+                "%d sources, %d lines, %d scopes, %d variables, %d calls, %d indexed globals%n",
+                this.sources, this.lines, this.scopes, this.variables, this.calls, this.indexedGlobals));
+        report.append(String.format("%-32s %12s %16s%n", "phase", "time (ms)", "allocated (KB)"));
+        for (Phase phase : PHASES) {
+            report.append(String.format("%-32s %12.3f %16s%n", phase,
+                    this.nanos[phase.ordinal()] / NANOS_PER_MILLI, ALLOCATIONS == null ? "-" :
+                            String.format("%.1f", this.bytes[phase.ordinal()] / BYTES_PER_KILOBYTE)));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Adds the time and allocations since the last (re)start to a phase.
+     *
+     * @param phase The phase.
+     */
+    private void pause(Phase phase) {
+        this.nanos[phase.ordinal()] += System.nanoTime() - this.startNanos;
+        if (ALLOCATIONS != null) this.bytes[phase.ordinal()] += allocatedBytes() - this.startBytes;
+    }
+
+    /**
+     * (Re)starts the measurement of the last running phase.
+     */
+    private void restart() {
+        if (ALLOCATIONS != null) this.startBytes = allocatedBytes();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Maps the values of all the phases by the phases' names.
+     *
+     * @param values The values, by the phases' ordinal numbers.
+     * @return The map.
+     */
+    private static Map<String, Long> byPhase(long[] values) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (Phase phase : PHASES) map.put(phase.name(), values[phase.ordinal()]);
+        return map;
+    }
+
+    /**
+     * Gets the number of bytes the current thread allocated so far.
+     *
+     * @return The number of bytes.
+     */
+    private static long allocatedBytes() {
+        return ALLOCATIONS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Gets the allocation counter of the threads.
+     *
+     * @return The counter, or null if the JVM does not measure allocations.
+     */
+    private static com.sun.management.ThreadMXBean allocationsCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+        return counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled() ?
+                counter : null;
+    }
+}
@@ -0,0 +1,72 @@
+package oop.ex5.main;
+
+import java.util.Map;
+
+/**
+ * The management interface of the verification statistics (see VerificationStats), through
+ * which a long-running verifier exposes its counters and phase timings over JMX.
+ */
+public interface VerificationStatsMXBean {
+
+    /**
+     * Gets the number of verified sources.
+     *
+     * @return The number of sources.
+     */
+    long getSources();
+
+    /**
+     * Gets the number of verified lines.
+     *
+     * @return The number of lines.
+     */
+    long getLines();
+
+    /**
+     * Gets the number of created scopes (including the global scopes).
+     *
+     * @return The number of scopes.
+     */
+    long getScopes();
+
+    /**
+     * Gets the number of declared variables and method arguments.
+     *
+     * @return The number of variables.
+     */
+    long getVariables();
+
+    /**
+     * Gets the number of checked method calls.
+     *
+     * @return The number of calls.
+     */
+    long getCalls();
+
+    /**
+     * Gets the number of global variables which the pre-passes indexed.
+     *
+     * @return The number of indexed globals.
+     */
+    long getIndexedGlobals();
+
+    /**
+     * Gets the wall time of every phase.
+     *
+     * @return The nanoseconds spent in every phase, by the phase's name.
+     */
+    Map<String, Long> getPhaseNanos();
+
+    /**
+     * Gets the bytes allocated by every phase.
+     *
+     * @return The bytes allocated in every phase, by the phase's name (-1 if the JVM does
+     * not measure allocations).
+     */
+    Map<String, Long> getPhaseAllocatedBytes();
+
+    /**
+     * Resets all the statistics.
+     */
+    void reset();
+}
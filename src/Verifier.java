@@ -0,0 +1,609 @@
+package oop.ex5.main;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * The embeddable s-Java verifier. A Verifier verifies files or in-memory sources
+ * and returns their VerificationResult, without printing anything, so it can be used
+ * in-process by other programs (e.g. build tools).
+ * Every verification runs with its own VerificationContext, so a single Verifier may be
+ * used by many threads at the same time. The asynchronous verifications run on virtual
+ * threads when the running JVM supports them, and on a pool of daemon threads otherwise.
+ */
+public class Verifier {
+
+    /**
+     * The name given to the result of an in-memory source.
+     */
+    public final static String INLINE_SOURCE_NAME = "<inline>";
+
+    /**
+     * The version of the verifier and of its verification rules (stored results of other
+     * versions are not used).
+     */
+    public final static String VERSION = "1.0-r" + VerificationContext.RULES_VERSION;
+
+    /**
+     * The name of the global scope.
+     */
+    private final static String GLOBAL_SCOPE_NAME = "Global Scope";
+
+    /**
+     * The name of the factory method of the virtual threads executor (available since Java 21).
+     */
+    private final static String VIRTUAL_THREADS_FACTORY = "newVirtualThreadPerTaskExecutor";
+
+    /**
+     * The number of processors of a single core machine.
+     */
+    private final static int ONE_CORE = 1;
+
+    /**
+     * The executor shared by all the verifiers which were not given an executor.
+     */
+    private static volatile ExecutorService defaultExecutor;
+
+    /**
+     * The executor of the asynchronous verifications.
+     */
+    private final Executor executor;
+
+    /**
+     * The options of the verifications (the method cache, result store and statistics).
+     */
+    private final VerificationOptions options;
+
+    /**
+     * Creates a verifier which runs its asynchronous verifications on virtual threads
+     * (or on daemon threads, if virtual threads are not supported).
+     */
+    public Verifier() {
+        this(VerificationOptions.defaults());
+    }
+
+    /**
+     * Creates a verifier which runs its asynchronous verifications on the given executor.
+     *
+     * @param executor The executor of the asynchronous verifications.
+     */
+    public Verifier(Executor executor) {
+        this(VerificationOptions.defaults().withExecutor(executor));
+    }
+
+    /**
+     * Creates a verifier with the given options: it skips the files which are found in the
+     * options' result store and the methods which are found in their method cache (see
+     * ResultStore and MethodCache), adds the statistics of every verification to their
+     * statistics, and runs its asynchronous verifications on their executor.
+     *
+     * @param options The options of the verifications.
+     */
+    public Verifier(VerificationOptions options) {
+        this.executor = options.getExecutor() == null ? getDefaultExecutor() : options.getExecutor();
+        this.options = options;
+    }
+
+    /**
+     * Verifies an s-Java file.
+     *
+     * @param file The file path.
+     * @return The result of the verification.
+     */
+    public VerificationResult verify(Path file) {
+        return verifyFilePath(file.toString());
+    }
+
+    /**
+     * Verifies an s-Java file, given as a path string (which is kept as the source of the
+     * result). A file whose content is found in the result store is not parsed at all.
+     *
+     * @param filePath The source Sjava file path.
+     * @return The result of the verification.
+     */
+    VerificationResult verifyFilePath(String filePath) {
+        ResultStore resultStore = this.options.getResultStore();
+        if (resultStore == null) return verifyFile(filePath, this.options);
+        byte[] key;
+        try {
+            key = ResultStore.key(filePath);
+        } catch (IOException e) {
+            // the file is read again, so its error is reported as in any other run
+            return verifyFile(filePath, this.options);
+        }
+        VerificationResult result = resultStore.get(key, filePath);
+        if (result == null) {
+            result = verifyFile(filePath, this.options);
+            resultStore.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Verifies an in-memory s-Java source.
+     *
+     * @param source The source code.
+     * @return The result of the verification.
+     */
+    public VerificationResult verify(CharSequence source) {
+        List<String> lines;
+        try {
+            lines = readLines(source);
+        } catch (IOException e) {
+            return new VerificationResult(INLINE_SOURCE_NAME, Sjavac.OutputType.IO_ERROR, e);
+        }
+        return verifyLines(INLINE_SOURCE_NAME, new StringLineBuffer(lines), this.options);
+    }
+
+    /**
+     * Splits an in-memory s-Java source into its lines.
+     *
+     * @param source The source code.
+     * @return The lines.
+     * @throws IOException If failed to read the source.
+     */
+    private static List<String> readLines(CharSequence source) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new StringReader(source.toString()))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Verifies an s-Java file, collecting several errors: the verification records every
+     * error, goes on from the next statement or scope, and stops once it met the given number
+     * of errors. The result store (if any) is not used, as it holds only the first errors.
+     *
+     * @param file      The file path.
+     * @param maxErrors The number of errors after which the verification stops (at least 1).
+     * @return The result of the verification, with all its errors (see VerificationResult.getErrors).
+     */
+    public VerificationResult verifyAll(Path file, int maxErrors) {
+        return verifyFile(file.toString(), this.options.withMaxErrors(maxErrors));
+    }
+
+    /**
+     * Verifies an in-memory s-Java source, collecting several errors (see verifyAll(Path, int)).
+     *
+     * @param source    The source code.
+     * @param maxErrors The number of errors after which the verification stops (at least 1).
+     * @return The result of the verification, with all its errors (see VerificationResult.getErrors).
+     */
+    public VerificationResult verifyAll(CharSequence source, int maxErrors) {
+        List<String> lines;
+        try {
+            lines = readLines(source);
+        } catch (IOException e) {
+            return new VerificationResult(INLINE_SOURCE_NAME, Sjavac.OutputType.IO_ERROR, e);
+        }
+        return verifyLines(INLINE_SOURCE_NAME, new StringLineBuffer(lines), this.options.withMaxErrors(maxErrors));
+    }
+
+    /**
+     * Verifies an s-Java file while it is read, with a bounded memory use.
+     * A first read only parses the file's lines, to check their brackets and index the
+     * global variables of its global scope (see GlobalIndex). Then the global scope is
+     * verified as its lines are read, and every method is verified (and discarded) once its
+     * closing bracket is read, so only a single method's lines are held in memory at a time,
+     * along with the method signatures and the global symbols which are needed for the final
+     * checks. The result is the same as of verify(Path).
+     *
+     * @param file The file path.
+     * @return The result of the verification.
+     */
+    public VerificationResult verifyStreaming(Path file) {
+        String filePath = file.toString();
+        // the file is read twice: once to check its brackets and index its globals, and once to verify it
+        try (BufferedReader globalsReader = new BufferedReader(new FileReader(filePath));
+             BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            return verifyStream(filePath, globalsReader, reader, this.options);
+        } catch (IOException e) {
+            return new VerificationResult(filePath, Sjavac.OutputType.IO_ERROR, e);
+        }
+    }
+
+    /**
+     * Verifies an s-Java file, verifying its methods in parallel on the common fork-join pool.
+     * The result is the same as of verify(Path), except that the verification always stops
+     * at its first error. A single core gains nothing from the split of the methods, so the
+     * file is then verified sequentially.
+     *
+     * @param file The file path.
+     * @return The result of the verification.
+     */
+    public VerificationResult verifyParallel(Path file) {
+        if (Runtime.getRuntime().availableProcessors() == ONE_CORE)
+            return verifyFile(file.toString(), this.options);
+        return verifyParallel(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Verifies an s-Java file, verifying its methods in parallel on the given pool.
+     * The global scope is scanned first, and then every method is verified as a task of the
+     * pool, so a file of many methods is verified in a fraction of the time of verify(Path).
+     * The result is the same as of verify(Path), except that the verification always stops
+     * at its first error.
+     *
+     * @param file The file path.
+     * @param pool The pool the methods are verified on.
+     * @return The result of the verification.
+     */
+    public VerificationResult verifyParallel(Path file, ForkJoinPool pool) {
+        return verifyFile(file.toString(),
+                this.options.withMaxErrors(VerificationContext.STOP_AT_FIRST_ERROR).withPool(pool));
+    }
+
+    /**
+     * Verifies an s-Java file asynchronously.
+     *
+     * @param file The file path.
+     * @return A future of the result of the verification.
+     */
+    public CompletableFuture<VerificationResult> verifyAsync(Path file) {
+        return CompletableFuture.supplyAsync(() -> verify(file), this.executor);
+    }
+
+    /**
+     * Verifies an in-memory s-Java source asynchronously.
+     *
+     * @param source The source code.
+     * @return A future of the result of the verification.
+     */
+    public CompletableFuture<VerificationResult> verifyAsync(CharSequence source) {
+        // the source may be mutable, so it is copied before the caller goes on
+        String sourceCopy = source.toString();
+        return CompletableFuture.supplyAsync(() -> verify(sourceCopy), this.executor);
+    }
+
+    /**
+     * Verifies a single s-Java file.
+     *
+     * @param filePath The source Sjava file path.
+     * @return The result of the verification.
+     */
+    static VerificationResult verifyFile(String filePath) {
+        return verifyFile(filePath, VerificationOptions.defaults());
+    }
+
+    /**
+     * Verifies a single s-Java file, sequentially or with its methods verified in parallel,
+     * collecting up to the options' number of errors. The options' result store is not used.
+     *
+     * @param filePath The source Sjava file path.
+     * @param options  The options of the verification.
+     * @return The result of the verification.
+     */
+    static VerificationResult verifyFile(String filePath, VerificationOptions options) {
+        VerificationStats stats = options.getStats();
+        VerificationStats run = stats == null ? null : new VerificationStats();
+        LineBuffer fileContent;
+        try {
+            if (run != null) run.begin(VerificationStats.Phase.READ);
+            SjavaFileReader sjavaFileReader = new SjavaFileReader(filePath);
+            sjavaFileReader.readFile();
+            fileContent = sjavaFileReader.getFileContent();
+            if (run != null) run.end();
+        } catch (IOException | IllegalArgumentException e) {
+            if (run != null) {
+                run.endAll();
+                stats.add(run);
+            }
+            return new VerificationResult(filePath, Sjavac.OutputType.IO_ERROR, e);
+        }
+        VerificationResult result = options.getPool() == null ? verifyRun(filePath, fileContent, options, run)
+                : verifyParallelRun(filePath, fileContent, options, run);
+        if (run != null) stats.add(run);
+        return result;
+    }
+
+    /**
+     * Verifies the lines of a single s-Java source.
+     *
+     * @param source      The name of the source (a file path, or any other name for an in-memory source).
+     * @param fileContent The source's code lines.
+     * @return The result of the verification.
+     */
+    static VerificationResult verifyLines(String source, LineBuffer fileContent) {
+        return verifyLines(source, fileContent, VerificationOptions.defaults());
+    }
+
+    /**
+     * Verifies the lines of a single s-Java source, collecting up to the options' number of
+     * errors. The options' result store and pool are not used.
+     *
+     * @param source      The name of the source (a file path, or any other name for an in-memory source).
+     * @param fileContent The source's code lines.
+     * @param options     The options of the verification.
+     * @return The result of the verification.
+     */
+    static VerificationResult verifyLines(String source, LineBuffer fileContent, VerificationOptions options) {
+        VerificationStats stats = options.getStats();
+        VerificationStats run = stats == null ? null : new VerificationStats();
+        VerificationResult result = verifyRun(source, fileContent, options, run);
+        if (run != null) stats.add(run);
+        return result;
+    }
+
+    /**
+     * Verifies the lines of a single s-Java source, recording the run's statistics.
+     *
+     * @param source      The name of the source.
+     * @param fileContent The source's code lines.
+     * @param options     The options of the verification (its method cache and number of errors).
+     * @param run         The statistics of the run (or null).
+     * @return The result of the verification.
+     */
+    private static VerificationResult verifyRun(String source, LineBuffer fileContent, VerificationOptions options,
+                                                VerificationStats run) {
+        VerificationContext context = new VerificationContext(options.getMethodCache(), run, options.getMaxErrors());
+        try {
+            if (run != null) {
+                run.countSource(fileContent.size());
+                run.begin(VerificationStats.Phase.PARSE);
+            }
+            SjavaTree tree = SjavaParser.parse(fileContent);
+            // a run which collects several errors reports the brackets at their lines, after the errors before them
+            if (context.maxErrors == VerificationContext.STOP_AT_FIRST_ERROR) Scope.checkBrackets(tree);
+            Scope scope = new Scope(context, tree, SjavaTree.ROOT, null, GLOBAL_SCOPE_NAME);
+            if (run != null) {
+                run.end();
+                run.begin(VerificationStats.Phase.INDEX);
+            }
+            context.symbols.hoist(index(GlobalIndex.of(tree), run));
+            if (run != null) run.end();
+            scan(scope, fileContent.size(), run);
+            context.finalChecks();
+        } catch (VariableError | ScopeError | MethodError e) {
+            context.collect(e);
+            return illegal(source, context, e);
+        } finally {
+            if (run != null) run.endAll();
+        }
+        if (context.errorCount() > 0) return new VerificationResult(source, context.getErrors());
+        return new VerificationResult(source, Sjavac.OutputType.LEGAL, null);
+    }
+
+    /**
+     * Verifies the lines of a single s-Java source, with its methods verified in parallel
+     * (see ParallelVerifier), recording the run's statistics. The verification stops at its
+     * first error. A source which must be verified again sequentially records only the
+     * statistics of its sequential run.
+     *
+     * @param source      The name of the source.
+     * @param fileContent The source's code lines.
+     * @param options     The options of the verification (its method cache and pool).
+     * @param run         The statistics of the run (or null).
+     * @return The result of the verification.
+     */
+    private static VerificationResult verifyParallelRun(String source, LineBuffer fileContent,
+                                                        VerificationOptions options, VerificationStats run) {
+        VerificationStats attempt = run == null ? null : new VerificationStats();
+        VerificationResult result = verifyParallelAttempt(source, fileContent, options, attempt);
+        if (result == null) return verifyRun(source, fileContent, options, run);
+        if (run != null) run.add(attempt);
+        return result;
+    }
+
+    /**
+     * Verifies the lines of a single s-Java source, with its methods verified in parallel,
+     * unless it must be verified again sequentially (see ParallelVerifier.verify).
+     *
+     * @param source      The name of the source.
+     * @param fileContent The source's code lines.
+     * @param options     The options of the verification (its method cache and pool).
+     * @param run         The statistics of the parallel run (or null).
+     * @return The result of the verification, or null if the source must be verified again sequentially.
+     */
+    private static VerificationResult verifyParallelAttempt(String source, LineBuffer fileContent,
+                                                            VerificationOptions options, VerificationStats run) {
+        VerificationContext context = new VerificationContext(options.getMethodCache(), run);
+        context.pendingMethods = new ArrayList<>();
+        try {
+            if (run != null) {
+                run.countSource(fileContent.size());
+                run.begin(VerificationStats.Phase.PARSE);
+            }
+            SjavaTree tree = SjavaParser.parse(fileContent);
+            Scope.checkBrackets(tree);
+            Scope scope = new Scope(context, tree, SjavaTree.ROOT, null, GLOBAL_SCOPE_NAME);
+            if (run != null) {
+                run.end();
+                run.begin(VerificationStats.Phase.INDEX);
+            }
+            // the methods see the globals after an error of the global scan as a sequential run does
+            GlobalIndex index = index(GlobalIndex.of(tree), run);
+            if (run != null) run.end();
+            // the methods before an error of the global scope are verified, as in a sequential run
+            SjavaError globalError = null;
+            try {
+                scan(scope, fileContent.size(), run);
+            } catch (VariableError | ScopeError | MethodError e) {
+                if (run != null) run.endAll();
+                globalError = e;
+            }
+            if (run != null) run.begin(VerificationStats.Phase.METHODS);
+            if (!new ParallelVerifier(context, tree, index).verify(options.getPool())) return null;
+            if (run != null) run.end();
+            if (globalError != null) return illegal(source, context, globalError);
+            context.finalChecks();
+        } catch (VariableError | ScopeError | MethodError e) {
+            return illegal(source, context, e);
+        } finally {
+            if (run != null) run.endAll();
+        }
+        return new VerificationResult(source, Sjavac.OutputType.LEGAL, null);
+    }
+
+    /**
+     * Counts the global variables of a pre-pass's index.
+     *
+     * @param index The index (or null).
+     * @param run   The statistics of the run (or null).
+     * @return The index.
+     */
+    private static GlobalIndex index(GlobalIndex index, VerificationStats run) {
+        if (run != null && index != null) run.countIndexedGlobals(index.size());
+        return index;
+    }
+
+    /**
+     * Creates the result of an illegal source.
+     *
+     * @param source  The name of the source.
+     * @param context The context of the run.
+     * @param error   The error which ended the run.
+     * @return The result, with all the errors the run collected (if it collected several errors).
+     */
+    private static VerificationResult illegal(String source, VerificationContext context, SjavaError error) {
+        if (context.maxErrors == VerificationContext.STOP_AT_FIRST_ERROR)
+            return new VerificationResult(source, Sjavac.OutputType.ILLEGAL, error);
+        return new VerificationResult(source, context.getErrors());
+    }
+
+    /**
+     * Verifies the lines of a single s-Java source while they are read (see verifyStreaming).
+     *
+     * @param source        The name of the source.
+     * @param globalsReader The reader of the source's code lines for the pre-pass (see GlobalIndex).
+     * @param reader        The reader of the source's code lines.
+     * @param options       The options of the verification (its method cache and statistics).
+     * @return The result of the verification.
+     * @throws IOException If failed to read one of the lines.
+     */
+    static VerificationResult verifyStream(String source, BufferedReader globalsReader, BufferedReader reader,
+                                           VerificationOptions options) throws IOException {
+        StreamingLineBuffer lines = new StreamingLineBuffer();
+        SjavaParser parser = new SjavaParser(lines);
+        SjavaTree tree = parser.getTree();
+        // the lines are read, parsed and scanned in turns, so every phase is measured by parts
+        VerificationStats stats = options.getStats();
+        VerificationStats run = stats == null ? null : new VerificationStats();
+        try {
+            if (run != null) {
+                run.countSource(0);
+                run.begin(VerificationStats.Phase.INDEX);
+            }
+            VerificationContext context = new VerificationContext(options.getMethodCache(), run);
+            context.symbols.hoist(index(GlobalIndex.read(globalsReader), run));
+            if (run != null) run.end();
+            Scope scope = new Scope(context, tree, SjavaTree.ROOT, null, GLOBAL_SCOPE_NAME);
+            String line = readLine(reader, run);
+            while (line != null) {
+                if (run != null) {
+                    run.countLines(1);
+                    run.begin(VerificationStats.Phase.PARSE);
+                }
+                parser.parseLine(lines.add(line));
+                if (run != null) run.end();
+                // once every open scope is closed, the nodes read so far are complete
+                if (parser.isAtRoot()) {
+                    scan(scope, lines.windowSize(), run);
+                    scope.releaseInnerScopes();
+                    tree.clear();
+                    lines.discard();
+                }
+                line = readLine(reader, run);
+            }
+            // the scopes which are still open (if any) are never closed
+            scan(scope, lines.windowSize(), run);
+            context.finalChecks();
+        } catch (VariableError | ScopeError | MethodError e) {
+            return new VerificationResult(source, Sjavac.OutputType.ILLEGAL, e);
+        } finally {
+            if (run != null) {
+                run.endAll();
+                stats.add(run);
+            }
+        }
+        return new VerificationResult(source, Sjavac.OutputType.LEGAL, null);
+    }
+
+    /**
+     * Reads a single line of a streamed source, as a part of its read phase.
+     *
+     * @param reader The reader of the source's code lines.
+     * @param run    The statistics of the run (or null).
+     * @return The line, or null at the end of the source.
+     * @throws IOException If failed to read the line.
+     */
+    private static String readLine(BufferedReader reader, VerificationStats run) throws IOException {
+        if (run == null) return reader.readLine();
+        run.begin(VerificationStats.Phase.READ);
+        String line = reader.readLine();
+        run.end();
+        return line;
+    }
+
+    /**
+     * Scans the global scope, as a part of the global scan phase.
+     *
+     * @param scope     The global scope.
+     * @param lineCount The number of the lines which are scanned.
+     * @param run       The statistics of the run (or null).
+     * @throws ScopeError    If there is Scope error.
+     * @throws MethodError   If there is Method error.
+     * @throws VariableError If there is Variable error.
+     */
+    private static void scan(Scope scope, int lineCount, VerificationStats run)
+            throws ScopeError, MethodError, VariableError {
+        ScopeEvent event = new ScopeEvent();
+        event.begin();
+        if (run != null) run.begin(VerificationStats.Phase.GLOBAL_SCAN);
+        try {
+            scope.scan();
+        } finally {
+            // a global scope which failed is recorded too
+            if (event.shouldCommit()) {
+                event.name = GLOBAL_SCOPE_NAME;
+                event.kind = VerifierEvent.KIND_GLOBAL;
+                event.lineCount = lineCount;
+                event.commit();
+            }
+        }
+        if (run != null) run.end();
+    }
+
+    /**
+     * Gets the executor shared by all the verifiers which were not given an executor,
+     * creating it on the first use.
+     *
+     * @return The default executor.
+     */
+    private static ExecutorService getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            synchronized (Verifier.class) {
+                if (defaultExecutor == null) defaultExecutor = createDefaultExecutor();
+            }
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * Creates an executor which starts a new virtual thread for each task. The factory is
+     * looked up at runtime, so the verifier still runs on JVMs without virtual threads,
+     * where a cached pool of daemon threads is used instead.
+     *
+     * @return The new executor.
+     */
+    private static ExecutorService createDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod(VIRTUAL_THREADS_FACTORY).invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package oop.ex5.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.management.JMException;
+
+/**
+ * A long-running verifier server, listening on a local Unix domain socket.
+ * Running the verifier once and keeping it alive saves the JVM startup and warm-up
+ * time of every verification, so editors and hooks can verify files with a low latency.
+ * The protocol is line based, and a client may send any number of requests on a
+ * single connection:
+ * 'FILE path' - verifies the file in the given path.
+ * 'SOURCE n' - followed by n code lines (at most MAX_SOURCE_LINES), verifies the given inline source.
+ * Each request is answered with a single line: the output code (0/1/2) and the error
+ * message, separated by a tab. A request whose verification fails unexpectedly is
+ * answered with the code 2, as the command line reports it.
+ * The daemon's statistics (see VerificationStats) are exposed as a JMX MBean.
+ */
+public class VerifierDaemon {
+
+    /**
+     * The option which starts the verifier as a daemon.
+     */
+    public final static String DAEMON_OPTION = "--daemon";
+
+    /**
+     * The request commands.
+     */
+    public final static String FILE_COMMAND = "FILE", SOURCE_COMMAND = "SOURCE";
+
+    /**
+     * The number of the daemon's arguments.
+     */
+    private final static int ARGUMENTS_NUMBER = 2;
+
+    /**
+     * The maximal number of lines of an inline source.
+     */
+    private final static int MAX_SOURCE_LINES = 1 << 20;
+
+    /**
+     * The separator of the request and response fields.
+     */
+    private final static String COMMAND_SEPARATOR = " ", FIELD_SEPARATOR = "\t", LINE_SEPARATOR = "\n";
+
+    /**
+     * The path of the socket file.
+     */
+    private final Path socketPath;
+
+    /**
+     * The statistics of all the daemon's verifications.
+     */
+    private final VerificationStats stats = new VerificationStats();
+
+    /**
+     * The options of the daemon's verifications (which add to its statistics).
+     */
+    private final VerificationOptions options = VerificationOptions.defaults().withStats(this.stats);
+
+    /**
+     * The class's constructor.
+     *
+     * @param args The command line arguments ('--daemon' and the socket path).
+     * @throws IllegalArgumentException If the socket path is missing.
+     */
+    public VerifierDaemon(String[] args) {
+        if (args.length != ARGUMENTS_NUMBER)
+            throw new IllegalArgumentException("Usage: " + DAEMON_OPTION + " <socket path>.");
+        this.socketPath = Paths.get(args[1]);
+    }
+
+    /**
+     * Listens on the socket, and serves each connection on its own thread, until the
+     * program is terminated.
+     *
+     * @throws IOException If the socket could not be opened.
+     */
+    public void run() throws IOException {
+        removeStaleSocket();
+        try {
+            this.stats.register();
+        } catch (JMException e) {
+            // the daemon serves its clients without the statistics MBean
+            System.err.println("Failed to register the statistics MBean: " + e);
+        }
+        ExecutorService connections = Executors.newCachedThreadPool();
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(this.socketPath));
+            Runtime.getRuntime().addShutdownHook(new Thread(this::deleteSocket));
+            while (server.isOpen()) {
+                SocketChannel client = server.accept();
+                connections.execute(() -> serve(client));
+            }
+        } finally {
+            connections.shutdownNow();
+            deleteSocket();
+        }
+    }
+
+    /**
+     * Answers the requests of a single connection, until the client closes it.
+     *
+     * @param client The client's channel.
+     */
+    private void serve(SocketChannel client) {
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client),
+                     StandardCharsets.UTF_8));
+             Writer out = new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8)) {
+            String request = in.readLine();
+            while (request != null) {
+                VerificationResult result;
+                try {
+                    result = handle(request, in);
+                } catch (RuntimeException | Error e) {
+                    // the failure of a single request does not drop its connection
+                    result = new VerificationResult(request, Sjavac.OutputType.IO_ERROR,
+                            new IOException("Failed to verify the request: " + e, e));
+                }
+                out.write(result.getCode() + FIELD_SEPARATOR + result.getMessage() + LINE_SEPARATOR);
+                out.flush();
+                request = in.readLine();
+            }
+        } catch (IOException e) {
+            // the client went away - there is no one to report to
+        }
+    }
+
+    /**
+     * Handles a single request.
+     *
+     * @param request The request line.
+     * @param in      The connection's reader (for the lines of an inline source).
+     * @return The result of the verification.
+     * @throws IOException If the connection failed while reading an inline source.
+     */
+    private VerificationResult handle(String request, BufferedReader in) throws IOException {
+        int separator = request.indexOf(COMMAND_SEPARATOR);
+        String command = separator == -1 ? request : request.substring(0, separator);
+        String argument = separator == -1 ? Scope.REGEX_EMPTY : request.substring(separator + 1);
+        switch (command) {
+            case FILE_COMMAND:
+                return Verifier.verifyFile(argument, this.options);
+            case SOURCE_COMMAND:
+                int linesNum;
+                try {
+                    linesNum = Integer.parseInt(argument.trim());
+                } catch (NumberFormatException e) {
+                    linesNum = -1;
+                }
+                if (linesNum < 0 || linesNum > MAX_SOURCE_LINES)
+                    return new VerificationResult(Verifier.INLINE_SOURCE_NAME, Sjavac.OutputType.IO_ERROR,
+                            new IllegalArgumentException("Invalid number of lines '" + argument + "' (at most "
+                                    + MAX_SOURCE_LINES + ")."));
+                List<String> lines = new ArrayList<>();
+                for (int i = 0; i < linesNum; i++) {
+                    String line = in.readLine();
+                    if (line == null) throw new IOException("The source ended after " + i + " lines.");
+                    lines.add(line);
+                }
+                return Verifier.verifyLines(Verifier.INLINE_SOURCE_NAME, new StringLineBuffer(lines), this.options);
+            default:
+                return new VerificationResult(request, Sjavac.OutputType.IO_ERROR,
+                        new IllegalArgumentException("Unknown request '" + request + "'."));
+        }
+    }
+
+    /**
+     * Removes the socket file left by a daemon which is not running anymore.
+     *
+     * @throws IOException If another daemon is already listening on the socket, or the path
+     *                     is in use by a file which is not a socket.
+     */
+    private void removeStaleSocket() throws IOException {
+        if (!Files.exists(this.socketPath, LinkOption.NOFOLLOW_LINKS)) return;
+        // a regular file, a directory or a link in the socket's path is never deleted
+        if (!Files.readAttributes(this.socketPath, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther())
+            throw new IOException(this.socketPath + " is in use by a file which is not a socket.");
+        boolean isListening;
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(this.socketPath))) {
+            isListening = channel.isConnected();
+        } catch (IOException e) {
+            isListening = false;
+        }
+        if (isListening)
+            throw new IOException("A verifier daemon is already listening on " + this.socketPath + ".");
+        Files.deleteIfExists(this.socketPath);
+    }
+
+    /**
+     * Deletes the socket file.
+     */
+    private void deleteSocket() {
+        try {
+            Files.deleteIfExists(this.socketPath);
+        } catch (IOException ignored) {
+        }
+    }
+}
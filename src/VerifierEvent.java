@@ -0,0 +1,108 @@
+package oop.ex5.main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The base of the verifier's JDK Flight Recorder events.
+ * The events are disabled by default (so an event which is not recorded is never
+ * committed, and its allocation is usually eliminated by the JIT compiler), and are
+ * enabled by a recording's settings, e.g.
+ * '-XX:StartFlightRecording:+oop.ex5.main.Scope#enabled=true,filename=run.jfr'.
+ * They carry no stack traces, as their fields locate them.
+ */
+@Category("s-Java Verifier")
+@Enabled(false)
+@StackTrace(false)
+public abstract class VerifierEvent extends Event {
+
+    /**
+     * The scope kinds.
+     */
+    final static String KIND_GLOBAL = "global", KIND_METHOD = "method", KIND_CONDITION = "condition";
+}
+
+/**
+ * The scan of a single scope, from its entry to its exit.
+ */
+@Name("oop.ex5.main.Scope")
+@Label("Scope")
+@Description("The scan of a single s-Java scope")
+class ScopeEvent extends VerifierEvent {
+
+    /**
+     * The scope name.
+     */
+    @Label("Name")
+    String name;
+
+    /**
+     * The scope kind (global, method or condition).
+     */
+    @Label("Kind")
+    String kind;
+
+    /**
+     * The number of the scope's lines.
+     */
+    @Label("Line Count")
+    int lineCount;
+}
+
+/**
+ * The handling of a single line command, by the rule which classified it.
+ */
+@Name("oop.ex5.main.LineRule")
+@Label("Line Rule")
+@Description("The handling of a single s-Java line command")
+class LineRuleEvent extends VerifierEvent {
+
+    /**
+     * The declaration, call, return and assignment rules.
+     */
+    final static String RULE_DECLARATION = "declaration", RULE_CALL = "call", RULE_RETURN = "return",
+            RULE_ASSIGNMENT = "assignment";
+
+    /**
+     * The rule which classified the line.
+     */
+    @Label("Rule")
+    String rule;
+
+    /**
+     * The line.
+     */
+    @Label("Line")
+    String line;
+}
+
+/**
+ * A single deferred check, of a method call.
+ */
+@Name("oop.ex5.main.DeferredCheck")
+@Label("Deferred Check")
+@Description("A single check which was deferred until all the s-Java methods are known")
+class DeferredCheckEvent extends VerifierEvent {
+
+    /**
+     * The call kind.
+     */
+    final static String KIND_CALL = "call";
+
+    /**
+     * The check kind.
+     */
+    @Label("Kind")
+    String kind;
+
+    /**
+     * The checked item (the call line).
+     */
+    @Label("Item")
+    String item;
+}